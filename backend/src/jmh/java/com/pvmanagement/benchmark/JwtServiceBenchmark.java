@@ -0,0 +1,48 @@
+package com.pvmanagement.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.pvmanagement.auth.domain.JwtProperties;
+import com.pvmanagement.auth.infra.JwtService;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link JwtService#verify} on a typical access token, i.e. the per-request cost of authentication.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        var properties = new JwtProperties();
+        properties.setSecret("benchmark-secret-benchmark-secret-benchmark");
+        properties.setAccessTokenTtlSeconds(3600);
+        jwtService = new JwtService(properties);
+        token = jwtService.generateToken("user@example.com", Set.of("ROLE_USER", "ROLE_ADMIN"),
+                Map.of("displayName", "Benchmark User"));
+    }
+
+    @Benchmark
+    public DecodedJWT verify() {
+        return jwtService.verify(token);
+    }
+}
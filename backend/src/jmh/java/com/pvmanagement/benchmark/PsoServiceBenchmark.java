@@ -0,0 +1,106 @@
+package com.pvmanagement.benchmark;
+
+import com.pvmanagement.monitoring.domain.DiurnalProfile;
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import com.pvmanagement.monitoring.infra.DiurnalProfileRepository;
+import com.pvmanagement.monitoring.infra.PowerStationRepository;
+import com.pvmanagement.panelSizeOptimizer.PsoRequest;
+import com.pvmanagement.panelSizeOptimizer.PsoResponse;
+import com.pvmanagement.panelSizeOptimizer.PsoService;
+import com.pvmanagement.timeSeriesStatistics.DiurnalSlots;
+import com.pvmanagement.timeSeriesStatistics.TssService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PsoService#getPanelSizeOptimizationData} end to end with the repositories stubbed in memory.
+ * The service reads the pre-aggregated 96-slot diurnal profile, so its cost does not depend on how much
+ * history went into it; the profile is aggregated once from a year of synthetic history during setup. Sweep
+ * size and parallelism can be varied with {@code -p capacitySteps=1000 -p parallelism=1,4}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PsoServiceBenchmark {
+
+    private static final PsoRequest REQUEST = PsoRequest.builder()
+            .electricityCosts("0.32")
+            .electricitySellingPrice("0.08")
+            .currentCapacity(String.valueOf(SyntheticHistory.CAPACITY_KWP))
+            .performanceRatio("0.85")
+            .reininvesttime("20")
+            .panelcost("1200")
+            .build();
+
+    @Param({"100"})
+    private int capacitySteps;
+
+    // 0 uses every available processor
+    @Param({"0"})
+    private int parallelism;
+
+    private PsoService psoService;
+
+    @Setup
+    public void setUp() {
+        DiurnalProfile profile = aggregate(SyntheticHistory.snapshots(1));
+        var meterRegistry = new SimpleMeterRegistry();
+        var profileRepository = new DiurnalProfileRepository(null, meterRegistry) {
+            @Override
+            public DiurnalProfile findByPowerStationId(Long powerStationId) {
+                return profile;
+            }
+        };
+        var stationRepository = (PowerStationRepository) Proxy.newProxyInstance(
+                PowerStationRepository.class.getClassLoader(),
+                new Class<?>[]{PowerStationRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("existsById")) {
+                        return true;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        psoService = new PsoService(stationRepository, profileRepository, new TssService(), meterRegistry,
+                capacitySteps, parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        psoService.shutdown();
+    }
+
+    @Benchmark
+    public PsoResponse panelSizeOptimization() {
+        return psoService.getPanelSizeOptimizationData(1L, REQUEST);
+    }
+
+    private static DiurnalProfile aggregate(List<PowerflowSnapshot> snapshots) {
+        int slots = DiurnalSlots.SLOTS_PER_DAY;
+        var profile = new DiurnalProfile(new double[slots], new long[slots], new double[slots], new long[slots]);
+        for (PowerflowSnapshot snapshot : snapshots) {
+            int slot = DiurnalSlots.slotOf(snapshot.getPowerflowTimestamp());
+            profile.pvSums()[slot] += snapshot.getPvW().doubleValue();
+            profile.pvCounts()[slot]++;
+            profile.loadSums()[slot] += snapshot.getLoadW().doubleValue();
+            profile.loadCounts()[slot]++;
+        }
+        return profile;
+    }
+}
@@ -0,0 +1,175 @@
+package com.pvmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pvmanagement.integration.cache.app.SemsPayloadParser;
+import com.pvmanagement.integration.cache.infra.CachePayloadCodec;
+import com.pvmanagement.monitoring.domain.PowerStation;
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Streaming {@link SemsPayloadParser} against the JsonNode tree + regex path ingestion used before it, copied
+ * field for field from the old {@code CacheIngestionService} so both sides do the same work,
+ * on the sample SEMS monitor payload, plus the compressed path (inflate + Smile) for entries stored as
+ * {@code response_blob}. Run with {@code -prof gc} to compare allocation per payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SemsPayloadParsingBenchmark {
+
+    private static final Pattern FIRST_NUMBER = Pattern.compile("[-+]?\\d{1,3}(?:[\\d.,]*\\d)?");
+    private static final DateTimeFormatter FMT_DAY = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final Instant FETCHED_AT = Instant.parse("2024-05-06T10:35:00Z");
+
+    private ObjectMapper objectMapper;
+    private SemsPayloadParser parser;
+    private String payload;
+    private byte[] blob;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        parser = new SemsPayloadParser(objectMapper);
+        try (InputStream in = SemsPayloadParsingBenchmark.class.getResourceAsStream("/sems/sample-monitor-response.json")) {
+            payload = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        blob = CachePayloadCodec.encode(payload);
+    }
+
+    @Benchmark
+    public SemsPayloadParser.ParsedPayload streaming() throws IOException {
+        return parser.parse(payload, FETCHED_AT);
+    }
+
+    @Benchmark
+    public SemsPayloadParser.ParsedPayload compressed() throws IOException {
+        return parser.parseSmile(CachePayloadCodec.decode(blob), FETCHED_AT);
+    }
+
+    @Benchmark
+    public SemsPayloadParser.ParsedPayload tree() throws IOException {
+        JsonNode data = objectMapper.readTree(payload).path("data");
+        JsonNode info = data.path("info");
+        if (info.isMissingNode()) {
+            throw new IllegalStateException("SEMS station data missing");
+        }
+        var station = new PowerStation();
+        station.setStationname(info.path("stationname").asText());
+        station.setAddress(info.path("address").asText(null));
+        station.setLatitude(asDouble(info.path("latitude")));
+        station.setLongitude(asDouble(info.path("longitude")));
+        station.setCapacityKWp(asDouble(info.path("capacity_kWp")));
+        station.setBatteryCapacityKWh(asDouble(info.path("battery_capacity_kWh")));
+        station.setPowerstationType(info.path("powerstation_type").asText(null));
+        station.setStatus(info.path("status").asText(null));
+        station.setOrgName(info.path("org_name").asText(null));
+        station.setOrgCode(info.path("org_code").asText(null));
+        station.setChartsType(info.path("charts_type").asText(null));
+        station.setTimeSpan(info.path("time_span").asText(null));
+        station.setIsPowerflow(info.path("is_powerflow").asBoolean());
+        station.setIsStored(info.path("is_stored").asBoolean());
+        if (info.hasNonNull("turnon_time")) {
+            station.setTurnonTime(parseOffset(info.path("turnon_time").asText()));
+        }
+        if (info.hasNonNull("create_time")) {
+            station.setCreateTime(parseOffset(info.path("create_time").asText()));
+        }
+
+        JsonNode powerflow = data.path("powerflow");
+        if (powerflow.isMissingNode()) {
+            return new SemsPayloadParser.ParsedPayload(station, null);
+        }
+        var snapshot = new PowerflowSnapshot();
+        snapshot.setPowerflowTimestamp(OffsetDateTime.ofInstant(FETCHED_AT, ZoneOffset.UTC));
+        snapshot.setPvW(asBigDecimal(powerflow.path("pv")));
+        snapshot.setBatteryW(asBigDecimal(powerflow.path("bettery")));
+        snapshot.setLoadW(asBigDecimal(powerflow.path("load")));
+        snapshot.setGridW(asBigDecimal(powerflow.path("grid")));
+        snapshot.setGensetW(asBigDecimal(powerflow.path("genset")));
+        snapshot.setMicrogridW(asBigDecimal(powerflow.path("microgrid")));
+        snapshot.setSocPercent(asBigDecimal(powerflow.path("soc")));
+        // the old entity kept the status codes as text
+        snapshot.setPvStatus(code(powerflow.path("pvStatus").asText(null)));
+        snapshot.setBatteryStatus(code(powerflow.path("betteryStatus").asText(null)));
+        snapshot.setLoadStatus(code(powerflow.path("loadStatus").asText(null)));
+        snapshot.setGridStatus(code(powerflow.path("gridStatus").asText(null)));
+        return new SemsPayloadParser.ParsedPayload(station, snapshot);
+    }
+
+    private static Short code(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Short.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double asDouble(JsonNode node) {
+        if (node == null || node.isMissingNode() || !node.isNumber()) {
+            return null;
+        }
+        return node.doubleValue();
+    }
+
+    private static OffsetDateTime parseOffset(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return LocalDateTime.parse(value.trim(), FMT_DAY).atOffset(ZoneOffset.UTC);
+    }
+
+    private static BigDecimal asBigDecimal(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isNumber()) {
+            return node.decimalValue();
+        }
+        String text = node.asText(null);
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        Matcher matcher = FIRST_NUMBER.matcher(text);
+        if (!matcher.find()) {
+            return null;
+        }
+        String num = matcher.group();
+        boolean hasDot = num.indexOf('.') >= 0;
+        boolean hasComma = num.indexOf(',') >= 0;
+        if (hasDot && hasComma) {
+            num = num.replace(",", "");
+        } else if (hasComma) {
+            num = num.replace(',', '.');
+        }
+        return new BigDecimal(num);
+    }
+}
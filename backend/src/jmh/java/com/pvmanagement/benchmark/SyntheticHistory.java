@@ -0,0 +1,81 @@
+package com.pvmanagement.benchmark;
+
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import com.pvmanagement.timeSeriesStatistics.TimeValue;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic 5-minute powerflow history for benchmarks: a seasonal PV bell curve around solar noon
+ * and a household load with morning/evening peaks, both with noise. Same seed, same series.
+ */
+final class SyntheticHistory {
+
+    static final Duration INTERVAL = Duration.ofMinutes(5);
+    static final OffsetDateTime START = OffsetDateTime.of(2015, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    static final double CAPACITY_KWP = 6.6;
+
+    private SyntheticHistory() {
+    }
+
+    static int samples(int years) {
+        return (int) (Duration.ofDays(365L * years).toMinutes() / INTERVAL.toMinutes());
+    }
+
+    static List<PowerflowSnapshot> snapshots(int years) {
+        int count = samples(years);
+        var random = new SplittableRandom(42);
+        List<PowerflowSnapshot> snapshots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OffsetDateTime timestamp = START.plus(INTERVAL.multipliedBy(i));
+            double pv = pv(timestamp, random);
+            double load = load(timestamp, random);
+
+            var snapshot = new PowerflowSnapshot();
+            snapshot.setPowerflowTimestamp(timestamp);
+            snapshot.setPvW(watts(pv));
+            snapshot.setLoadW(watts(load));
+            snapshot.setGridW(watts(load - pv));
+            snapshot.setBatteryW(BigDecimal.ZERO);
+            snapshot.setSocPercent(BigDecimal.valueOf(50));
+            snapshots.add(snapshot);
+        }
+        return snapshots;
+    }
+
+    static List<TimeValue> pvSeries(List<PowerflowSnapshot> snapshots) {
+        List<TimeValue> series = new ArrayList<>(snapshots.size());
+        for (PowerflowSnapshot snapshot : snapshots) {
+            series.add(new TimeValue(snapshot.getPowerflowTimestamp(), snapshot.getPvW()));
+        }
+        return series;
+    }
+
+    private static double pv(OffsetDateTime timestamp, SplittableRandom random) {
+        double hour = timestamp.getHour() + timestamp.getMinute() / 60.0;
+        double season = 0.55 + 0.45 * Math.sin(2 * Math.PI * (timestamp.getDayOfYear() - 80) / 365.0);
+        double halfDay = 4 + 4 * season;
+        double daylight = Math.cos(Math.PI / 2 * (hour - 12.5) / halfDay);
+        if (daylight <= 0) {
+            return 0;
+        }
+        double clouds = 0.4 + 0.6 * random.nextDouble();
+        return CAPACITY_KWP * 1000 * season * daylight * clouds;
+    }
+
+    private static double load(OffsetDateTime timestamp, SplittableRandom random) {
+        double hour = timestamp.getHour() + timestamp.getMinute() / 60.0;
+        double morning = Math.exp(-Math.pow(hour - 7, 2) / 2);
+        double evening = Math.exp(-Math.pow(hour - 19, 2) / 4);
+        return 250 + 1200 * morning + 1800 * evening + 300 * random.nextDouble();
+    }
+
+    private static BigDecimal watts(double value) {
+        return BigDecimal.valueOf(Math.round(value * 10), 1);
+    }
+}
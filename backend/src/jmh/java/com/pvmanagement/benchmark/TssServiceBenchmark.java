@@ -0,0 +1,46 @@
+package com.pvmanagement.benchmark;
+
+import com.pvmanagement.timeSeriesStatistics.DayTimeValue;
+import com.pvmanagement.timeSeriesStatistics.TimeValue;
+import com.pvmanagement.timeSeriesStatistics.TssService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link TssService#computeDiurnalMeanProfile} over 1, 5 and 10 years of 5-minute PV samples.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TssServiceBenchmark {
+
+    @Param({"1", "5", "10"})
+    private int years;
+
+    private final TssService tssService = new TssService();
+    private List<TimeValue> series;
+
+    @Setup
+    public void setUp() {
+        series = SyntheticHistory.pvSeries(SyntheticHistory.snapshots(years));
+    }
+
+    @Benchmark
+    public List<DayTimeValue> diurnalMeanProfile() {
+        return tssService.computeDiurnalMeanProfile(series);
+    }
+}
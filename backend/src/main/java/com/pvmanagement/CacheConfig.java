@@ -13,6 +13,10 @@ import java.util.concurrent.TimeUnit;
 @EnableCaching
 public class CacheConfig {
 
+    public static final String CURRENT_MEASUREMENTS = "currentMeasurements";
+    public static final String POWER_STATIONS = "powerStations";
+    public static final String DASHBOARD_SUMMARIES = "dashboardSummaries";
+
     @Bean
     public Caffeine<Object, Object> caffeineConfig() {
         return Caffeine.newBuilder()
@@ -21,9 +25,16 @@ public class CacheConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(Caffeine<Object, Object> caffeine) {
+    public CacheManager cacheManager(Caffeine<Object, Object> caffeine, AppCacheProperties properties) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         cacheManager.setCaffeine(caffeine);
+        // registered up front so the actuator cache metrics pick them up
+        properties.getCaches().forEach((name, spec) -> cacheManager.registerCustomCache(name,
+                Caffeine.newBuilder()
+                        .expireAfterWrite(spec.getTtl())
+                        .maximumSize(spec.getMaximumSize())
+                        .recordStats()
+                        .build()));
         return cacheManager;
     }
 }
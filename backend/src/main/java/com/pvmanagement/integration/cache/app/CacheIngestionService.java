@@ -1,33 +1,56 @@
 package com.pvmanagement.integration.cache.app;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pvmanagement.integration.cache.app.SemsPayloadParser.ParsedPayload;
 import com.pvmanagement.integration.cache.domain.ExternalApiCacheEntry;
+import com.pvmanagement.integration.cache.domain.IngestionCursor;
+import com.pvmanagement.integration.cache.infra.CacheChangeListener;
 import com.pvmanagement.integration.cache.infra.ExternalApiCacheRepository;
+import com.pvmanagement.monitoring.app.RecentSnapshotBuffer;
+import com.pvmanagement.monitoring.app.SnapshotPartitionMaintenance;
+import com.pvmanagement.monitoring.app.StationCaches;
+import com.pvmanagement.monitoring.domain.CurrentMeasurementsDto;
 import com.pvmanagement.monitoring.domain.PowerStation;
+import com.pvmanagement.monitoring.domain.PowerflowIngestedEvent;
 import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
 import com.pvmanagement.monitoring.domain.SemSyncLog;
 import com.pvmanagement.integration.cache.infra.IngestionStateRepository;
+import com.pvmanagement.monitoring.infra.DiurnalProfileRepository;
 import com.pvmanagement.monitoring.infra.PowerStationRepository;
-import com.pvmanagement.monitoring.infra.PowerflowSnapshotRepository;
+import com.pvmanagement.monitoring.infra.PowerflowRollupRepository;
+import com.pvmanagement.monitoring.infra.PowerflowSnapshotBatchRepository;
 import com.pvmanagement.monitoring.infra.SemSyncLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Profile("!collector")
@@ -35,126 +58,298 @@ import org.springframework.stereotype.Service;
 public class CacheIngestionService {
 
     private static final Logger log = LoggerFactory.getLogger(CacheIngestionService.class);
-    private static final Pattern FIRST_NUMBER = Pattern.compile("[-+]?\\d{1,3}(?:[\\d.,]*\\d)?");
-    private static final DateTimeFormatter FMT_DAY = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
 
     private final ExternalApiCacheRepository cacheRepository;
     private final PowerStationRepository powerStationRepository;
-    private final PowerflowSnapshotRepository powerflowSnapshotRepository;
+    private final PowerflowSnapshotBatchRepository powerflowSnapshotBatchRepository;
     private final SemSyncLogRepository semSyncLogRepository;
     private final IngestionStateRepository ingestionStateRepository;
-    private final ObjectMapper objectMapper;
+    private final DiurnalProfileRepository diurnalProfileRepository;
+    private final PowerflowRollupRepository powerflowRollupRepository;
+    private final StationCaches stationCaches;
+    private final RecentSnapshotBuffer recentSnapshotBuffer;
+    private final SnapshotPartitionMaintenance partitionMaintenance;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SemsPayloadParser payloadParser;
+    private final TransactionTemplate transactionTemplate;
     private final String cursorId;
+    private final int pageSize;
+    private final Counter processedEntries;
+    private final Counter skippedEntries;
+    private final Counter failedEntries;
+    private final Timer runTimer;
+    private final CacheChangeListener cacheChangeListener;
+    private final boolean listen;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final ReentrantLock runLock = new ReentrantLock();
+    private volatile Instant cursorFetchedAt;
 
     public CacheIngestionService(ExternalApiCacheRepository cacheRepository,
             PowerStationRepository powerStationRepository,
-            PowerflowSnapshotRepository powerflowSnapshotRepository,
+            PowerflowSnapshotBatchRepository powerflowSnapshotBatchRepository,
             SemSyncLogRepository semSyncLogRepository,
             IngestionStateRepository ingestionStateRepository,
-            ObjectMapper objectMapper,
-            @Value("${app.ingestion.cursor-id:cache_ingestion_global}") String cursorId) {
+            DiurnalProfileRepository diurnalProfileRepository,
+            PowerflowRollupRepository powerflowRollupRepository,
+            StationCaches stationCaches,
+            RecentSnapshotBuffer recentSnapshotBuffer,
+            SnapshotPartitionMaintenance partitionMaintenance,
+            ApplicationEventPublisher eventPublisher,
+            SemsPayloadParser payloadParser,
+            CacheChangeListener cacheChangeListener,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.ingestion.cursor-id:cache_ingestion_global}") String cursorId,
+            @Value("${app.ingestion.page-size:500}") int pageSize,
+            @Value("${app.ingestion.listen:true}") boolean listen,
+            MeterRegistry meterRegistry) {
         this.cacheRepository = cacheRepository;
         this.powerStationRepository = powerStationRepository;
-        this.powerflowSnapshotRepository = powerflowSnapshotRepository;
+        this.powerflowSnapshotBatchRepository = powerflowSnapshotBatchRepository;
         this.semSyncLogRepository = semSyncLogRepository;
         this.ingestionStateRepository = ingestionStateRepository;
-        this.objectMapper = objectMapper;
+        this.diurnalProfileRepository = diurnalProfileRepository;
+        this.powerflowRollupRepository = powerflowRollupRepository;
+        this.stationCaches = stationCaches;
+        this.recentSnapshotBuffer = recentSnapshotBuffer;
+        this.partitionMaintenance = partitionMaintenance;
+        this.eventPublisher = eventPublisher;
+        this.payloadParser = payloadParser;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.cursorId = cursorId;
+        this.pageSize = pageSize;
+        this.cacheChangeListener = cacheChangeListener;
+        this.listen = listen;
+        this.processedEntries = meterRegistry.counter("ingestion.entries", "result", "processed");
+        this.skippedEntries = meterRegistry.counter("ingestion.entries", "result", "skipped");
+        this.failedEntries = meterRegistry.counter("ingestion.entries", "result", "failed");
+        this.runTimer = meterRegistry.timer("ingestion.run");
+        Gauge.builder("ingestion.lag", this, CacheIngestionService::lagSeconds)
+                .description("Age of the newest cache entry ingested so far")
+                .baseUnit("seconds")
+                .register(meterRegistry);
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        // before the first notification-driven run, so reads are served from memory as soon as possible
+        recentSnapshotBuffer.warm();
+        if (listen) {
+            cacheChangeListener.start(this::ingestFromCache);
+        }
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        cacheChangeListener.stop();
+    }
+
+    /**
+     * Runs on every cache change notification and on the scheduled poll, which stays as a fallback for missed
+     * notifications. Runs never overlap: a request arriving mid-run is picked up by another pass of that run.
+     */
     @Scheduled(fixedDelayString = "${app.ingestion.interval:PT5M}")
     public void ingestFromCache() {
-        Instant cursor = ingestionStateRepository.findLastFetchedAt(cursorId).orElse(null);
-        List<ExternalApiCacheEntry> entries = cacheRepository.findAllNewerThan(cursor);
-        if (entries.isEmpty()) {
-            return;
+        pending.set(true);
+        do {
+            if (!runLock.tryLock()) {
+                return;
+            }
+            try {
+                while (pending.getAndSet(false)) {
+                    runTimer.record(this::ingestPages);
+                }
+            } finally {
+                runLock.unlock();
+            }
+            // a request may have slipped in between the last check and the unlock
+        } while (pending.get());
+    }
+
+    private void ingestPages() {
+        IngestionCursor cursor = ingestionStateRepository.findCursor(cursorId).orElse(null);
+        cursorFetchedAt = cursor == null ? null : cursor.fetchedAt();
+        while (true) {
+            List<ExternalApiCacheEntry> page = cacheRepository.findPageAfter(cursor, pageSize);
+            if (page.isEmpty()) {
+                return;
+            }
+            IngestionCursor next = IngestionCursor.after(page.get(page.size() - 1));
+            ParsedPage parsed = parsePage(page);
+            // outside the page transaction, see SnapshotPartitionMaintenance#storable
+            parsed.snapshotsByStation().replaceAll((name, snapshots) -> partitionMaintenance.storable(snapshots));
+            PageOutcome outcome = ingestPage(parsed, page.size(), next);
+            // counted after commit, so a rolled back page is not reported as ingested
+            processedEntries.increment(outcome.processed());
+            skippedEntries.increment(outcome.skipped());
+            failedEntries.increment(outcome.failed());
+            // appended and evicted only now: a read between the writes and the commit would cache the old state
+            // again, and the buffer comes first so a read right after the eviction already sees the new rows
+            outcome.inserted().forEach(recentSnapshotBuffer::append);
+            stationCaches.evict(outcome.stationIds());
+            outcome.events().forEach(eventPublisher::publishEvent);
+            cursor = next;
+            cursorFetchedAt = next.fetchedAt();
+            if (page.size() < pageSize) {
+                return;
+            }
         }
+    }
+
+    private double lagSeconds() {
+        Instant fetchedAt = cursorFetchedAt;
+        return fetchedAt == null ? Double.NaN : Duration.between(fetchedAt, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private ParsedPage parsePage(List<ExternalApiCacheEntry> page) {
+        Map<String, ParsedPayload> latestByStation = new LinkedHashMap<>();
+        Map<String, List<PowerflowSnapshot>> snapshotsByStation = new LinkedHashMap<>();
+        Map<String, Integer> entriesByStation = new LinkedHashMap<>();
+        int skipped = 0;
+        int failed = 0;
 
-        Instant maxFetched = cursor;
-        for (ExternalApiCacheEntry entry : entries) {
+        for (ExternalApiCacheEntry entry : page) {
             try {
-                ingestEntry(entry);
-                if (maxFetched == null || entry.fetchedAt().isAfter(maxFetched)) {
-                    maxFetched = entry.fetchedAt();
+                ParsedPayload payload = parseEntry(entry);
+                if (payload == null) {
+                    skipped++;
+                    continue;
+                }
+                latestByStation.put(payload.station().getStationname(), payload);
+                entriesByStation.merge(payload.station().getStationname(), 1, Integer::sum);
+                if (payload.snapshot() != null) {
+                    snapshotsByStation.computeIfAbsent(payload.station().getStationname(), name -> new ArrayList<>())
+                            .add(payload.snapshot());
                 }
             } catch (Exception ex) {
                 log.warn("Failed to ingest cache entry {}: {}", entry.cacheKey(), ex.getMessage());
+                failed++;
+            }
+        }
+
+        return new ParsedPage(latestByStation, snapshotsByStation, entriesByStation, skipped, failed);
+    }
+
+    /**
+     * Ingests one parsed page in a single transaction: stations are resolved and saved once, snapshots go in
+     * as one JDBC batch and the cursor moves past the page, so a crash resumes after the last committed page.
+     * <p>
+     * If the page fails for any reason but an unreachable database, it is ingested again with one transaction
+     * per station. The entries of a station that fails on its own are counted as failed, and the cursor moves
+     * past them, so one bad row cannot hold up ingestion for good.
+     */
+    private PageOutcome ingestPage(ParsedPage parsed, int pageSize, IngestionCursor next) {
+        try {
+            return transactionTemplate.execute(status -> {
+                var outcome = new PageOutcome(pageSize, parsed.skipped(), parsed.failed());
+                parsed.latestByStation().keySet().forEach(name -> outcome.add(ingestStation(parsed, name)));
+                ingestionStateRepository.upsert(cursorId, next);
+                return outcome;
+            });
+        } catch (RuntimeException ex) {
+            if (isTransient(ex)) {
+                throw ex;
             }
+            log.warn("Ingesting a page of {} entries failed, retrying it station by station: {}",
+                    pageSize, ex.getMessage());
         }
 
-        if (maxFetched != null) {
-            ingestionStateRepository.upsert(cursorId, maxFetched);
+        var outcome = new PageOutcome(pageSize, parsed.skipped(), parsed.failed());
+        for (String name : parsed.latestByStation().keySet()) {
+            try {
+                outcome.add(transactionTemplate.execute(status -> ingestStation(parsed, name)));
+            } catch (RuntimeException ex) {
+                if (isTransient(ex)) {
+                    throw ex;
+                }
+                log.warn("Failed to ingest {} cache entries of station {}: {}",
+                        parsed.entriesByStation().get(name), name, ex.getMessage());
+                outcome.fail(parsed.entriesByStation().get(name));
+            }
         }
+        transactionTemplate.executeWithoutResult(status -> ingestionStateRepository.upsert(cursorId, next));
+        return outcome;
+    }
+
+    private StationOutcome ingestStation(ParsedPage parsed, String stationName) {
+        PowerStation station = persistPowerStation(parsed.latestByStation().get(stationName).station());
+        List<PowerflowSnapshot> snapshots = parsed.snapshotsByStation().getOrDefault(stationName, List.of());
+        List<PowerflowSnapshot> inserted = persistPowerflowSnapshots(station, snapshots);
+        recordSync(station, "SUCCESS", null);
+        PowerflowIngestedEvent event = inserted.isEmpty() ?
+                null :
+                new PowerflowIngestedEvent(station.getId(), toCurrent(inserted.get(inserted.size() - 1)));
+        return new StationOutcome(station.getId(), inserted, event);
     }
 
-    private void ingestEntry(ExternalApiCacheEntry entry) throws IOException {
+    // an unreachable database fails every station alike, so the page is left for the next run instead
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    private ParsedPayload parseEntry(ExternalApiCacheEntry entry) throws IOException {
         if (entry.statusCode() != null && entry.statusCode() >= 400) {
             log.debug("Skipping cache entry {} due to upstream status {}", entry.cacheKey(), entry.statusCode());
-            return;
+            return null;
+        }
+        if (entry.responseSmile() != null) {
+            return payloadParser.parseSmile(entry.responseSmile(), entry.fetchedAt());
         }
         if (entry.responseJson() == null) {
             log.debug("Skipping cache entry {} without payload", entry.cacheKey());
-            return;
+            return null;
         }
-        JsonNode root = objectMapper.readTree(entry.responseJson());
-        JsonNode data = root.path("data");
-        PowerStation station = persistPowerStation(data.path("info"));
-        persistPowerflowSnapshot(station, data.path("powerflow"), entry.fetchedAt());
-        recordSync(station, "SUCCESS", null);
+        return payloadParser.parse(entry.responseJson(), entry.fetchedAt());
+    }
+
+    private PowerStation persistPowerStation(PowerStation parsed) {
+        var station = powerStationRepository.findByStationname(parsed.getStationname()).orElseGet(PowerStation::new);
+        station.setStationname(parsed.getStationname());
+        station.setAddress(parsed.getAddress());
+        station.setLatitude(parsed.getLatitude());
+        station.setLongitude(parsed.getLongitude());
+        station.setCapacityKWp(parsed.getCapacityKWp());
+        station.setBatteryCapacityKWh(parsed.getBatteryCapacityKWh());
+        station.setPowerstationType(parsed.getPowerstationType());
+        station.setStatus(parsed.getStatus());
+        station.setOrgName(parsed.getOrgName());
+        station.setOrgCode(parsed.getOrgCode());
+        station.setChartsType(parsed.getChartsType());
+        station.setTimeSpan(parsed.getTimeSpan());
+        station.setIsPowerflow(parsed.getIsPowerflow());
+        station.setIsStored(parsed.getIsStored());
+        if (parsed.getTurnonTime() != null) {
+            station.setTurnonTime(parsed.getTurnonTime());
+        }
+        if (parsed.getCreateTime() != null) {
+            station.setCreateTime(parsed.getCreateTime());
+        }
+        // flushed so the JDBC batch below sees the station row
+        return powerStationRepository.saveAndFlush(station);
+    }
+
+    private List<PowerflowSnapshot> persistPowerflowSnapshots(PowerStation station, List<PowerflowSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return snapshots;
+        }
+        snapshots.sort(Comparator.comparing(PowerflowSnapshot::getPowerflowTimestamp));
+        snapshots.forEach(snapshot -> snapshot.setPowerStation(station));
+        // only rows that were really inserted feed the aggregates, so re-ingesting an entry is harmless
+        List<PowerflowSnapshot> inserted = powerflowSnapshotBatchRepository.insertIgnoringDuplicates(snapshots);
+        diurnalProfileRepository.accumulate(station.getId(), inserted);
+        powerflowRollupRepository.accumulate(station.getId(), inserted);
+        return inserted;
     }
 
-    private PowerStation persistPowerStation(JsonNode stationNode) {
-        if (stationNode.isMissingNode()) {
-            throw new IllegalStateException("SEMS station data missing");
-        }
-        String stationName = stationNode.path("stationname").asText();
-        var station = powerStationRepository.findByStationname(stationName).orElseGet(PowerStation::new);
-        station.setStationname(stationName);
-        station.setAddress(stationNode.path("address").asText(null));
-        station.setLatitude(asDouble(stationNode.path("latitude")));
-        station.setLongitude(asDouble(stationNode.path("longitude")));
-        station.setCapacityKWp(asDouble(stationNode.path("capacity_kWp")));
-        station.setBatteryCapacityKWh(asDouble(stationNode.path("battery_capacity_kWh")));
-        station.setPowerstationType(stationNode.path("powerstation_type").asText(null));
-        station.setStatus(stationNode.path("status").asText(null));
-        station.setOrgName(stationNode.path("org_name").asText(null));
-        station.setOrgCode(stationNode.path("org_code").asText(null));
-        station.setChartsType(stationNode.path("charts_type").asText(null));
-        station.setTimeSpan(stationNode.path("time_span").asText(null));
-        station.setIsPowerflow(stationNode.path("is_powerflow").asBoolean());
-        station.setIsStored(stationNode.path("is_stored").asBoolean());
-        if (stationNode.hasNonNull("turnon_time")) {
-            station.setTurnonTime(parseOffset(stationNode.path("turnon_time").asText()));
-        }
-        if (stationNode.hasNonNull("create_time")) {
-            station.setCreateTime(parseOffset(stationNode.path("create_time").asText()));
-        }
-        return powerStationRepository.save(station);
-    }
-
-    private void persistPowerflowSnapshot(PowerStation station, JsonNode powerflowNode, Instant fetchedAt) {
-        if (powerflowNode.isMissingNode()) {
-            return;
-        }
-        OffsetDateTime snapshotTs = OffsetDateTime.ofInstant(fetchedAt, ZoneOffset.UTC);
-        if (powerflowSnapshotRepository.existsByPowerStationAndPowerflowTimestamp(station, snapshotTs)) {
-            return;
-        }
-        var snapshot = new PowerflowSnapshot();
-        snapshot.setPowerStation(station);
-        snapshot.setPowerflowTimestamp(snapshotTs);
-        snapshot.setPvW(asBigDecimal(powerflowNode.path("pv")));
-        snapshot.setBatteryW(asBigDecimal(powerflowNode.path("bettery")));
-        snapshot.setLoadW(asBigDecimal(powerflowNode.path("load")));
-        snapshot.setGridW(asBigDecimal(powerflowNode.path("grid")));
-        snapshot.setGensetW(asBigDecimal(powerflowNode.path("genset")));
-        snapshot.setMicrogridW(asBigDecimal(powerflowNode.path("microgrid")));
-        snapshot.setSocPercent(asBigDecimal(powerflowNode.path("soc")));
-        snapshot.setPvStatus(powerflowNode.path("pvStatus").asText(null));
-        snapshot.setBatteryStatus(powerflowNode.path("betteryStatus").asText(null));
-        snapshot.setLoadStatus(powerflowNode.path("loadStatus").asText(null));
-        snapshot.setGridStatus(powerflowNode.path("gridStatus").asText(null));
-        powerflowSnapshotRepository.save(snapshot);
+    private CurrentMeasurementsDto toCurrent(PowerflowSnapshot snapshot) {
+        return new CurrentMeasurementsDto(snapshot.getPowerflowTimestamp(),
+                snapshot.getPvW(),
+                snapshot.getBatteryW(),
+                snapshot.getLoadW(),
+                snapshot.getGridW(),
+                snapshot.getSocPercent());
     }
 
     private void recordSync(PowerStation station, String status, String message) {
@@ -166,43 +361,70 @@ public class CacheIngestionService {
         semSyncLogRepository.save(logEntry);
     }
 
-    private BigDecimal asBigDecimal(JsonNode node) {
-        if (node == null || node.isNull()) {
-            return null;
+    private record ParsedPage(Map<String, ParsedPayload> latestByStation,
+            Map<String, List<PowerflowSnapshot>> snapshotsByStation,
+            Map<String, Integer> entriesByStation,
+            int skipped,
+            int failed) {
+    }
+
+    private record StationOutcome(Long stationId,
+            List<PowerflowSnapshot> inserted,
+            PowerflowIngestedEvent event) {
+    }
+
+    // what a committed page did, reported only once its transactions have committed
+    private static final class PageOutcome {
+
+        private final int pageSize;
+        private final int skipped;
+        private int failed;
+        private final List<Long> stationIds = new ArrayList<>();
+        private final Map<Long, List<PowerflowSnapshot>> inserted = new LinkedHashMap<>();
+        private final List<PowerflowIngestedEvent> events = new ArrayList<>();
+
+        PageOutcome(int pageSize, int skipped, int failed) {
+            this.pageSize = pageSize;
+            this.skipped = skipped;
+            this.failed = failed;
         }
-        if (node.isNumber()) {
-            return node.decimalValue();
+
+        void add(StationOutcome station) {
+            stationIds.add(station.stationId());
+            if (!station.inserted().isEmpty()) {
+                inserted.put(station.stationId(), station.inserted());
+            }
+            if (station.event() != null) {
+                events.add(station.event());
+            }
         }
-        String text = node.asText(null);
-        if (text == null || text.isBlank()) {
-            return null;
+
+        void fail(int entries) {
+            failed += entries;
         }
-        Matcher matcher = FIRST_NUMBER.matcher(text);
-        if (!matcher.find()) {
-            return null;
+
+        int processed() {
+            return pageSize - skipped - failed;
+        }
+
+        int skipped() {
+            return skipped;
         }
-        String num = matcher.group();
-        boolean hasDot = num.indexOf('.') >= 0;
-        boolean hasComma = num.indexOf(',') >= 0;
-        if (hasDot && hasComma) {
-            num = num.replace(",", "");
-        } else if (hasComma) {
-            num = num.replace(',', '.');
+
+        int failed() {
+            return failed;
         }
-        return new BigDecimal(num);
-    }
 
-    private Double asDouble(JsonNode node) {
-        if (node == null || node.isMissingNode() || !node.isNumber()) {
-            return null;
+        List<Long> stationIds() {
+            return stationIds;
         }
-        return node.doubleValue();
-    }
 
-    private OffsetDateTime parseOffset(String value) {
-        if (value == null || value.isBlank()) {
-            return null;
+        Map<Long, List<PowerflowSnapshot>> inserted() {
+            return inserted;
+        }
+
+        List<PowerflowIngestedEvent> events() {
+            return events;
         }
-        return LocalDateTime.parse(value.trim(), FMT_DAY).atOffset(ZoneOffset.UTC);
     }
 }
@@ -0,0 +1,103 @@
+package com.pvmanagement.integration.cache.app;
+
+import com.pvmanagement.integration.cache.domain.IngestionCursor;
+import com.pvmanagement.integration.cache.infra.ExternalApiCacheRepository;
+import com.pvmanagement.integration.cache.infra.IngestionStateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps {@code external_api_cache} bounded. Entries are pruned once ingestion has moved past them and they are
+ * older than {@code app.cache-db.retention.max-age}; the age limit protects the other environments that ingest
+ * from the same cache at their own pace. With {@code app.cache-db.compress-payloads} remaining JSONB entries are
+ * rewritten in the compressed format as well.
+ */
+@Service
+@Profile("!collector")
+@ConditionalOnProperty(value = "app.cache-db.retention.enabled", havingValue = "true")
+public class CacheRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRetentionService.class);
+
+    private final ExternalApiCacheRepository cacheRepository;
+    private final IngestionStateRepository ingestionStateRepository;
+    private final String cursorId;
+    private final Duration maxAge;
+    private final int batchSize;
+    private final boolean compressPayloads;
+    private final Counter prunedEntries;
+    private final Counter compactedEntries;
+
+    public CacheRetentionService(ExternalApiCacheRepository cacheRepository,
+            IngestionStateRepository ingestionStateRepository,
+            @Value("${app.ingestion.cursor-id:cache_ingestion_global}") String cursorId,
+            @Value("${app.cache-db.retention.max-age:P30D}") Duration maxAge,
+            @Value("${app.cache-db.retention.batch-size:1000}") int batchSize,
+            @Value("${app.cache-db.compress-payloads:false}") boolean compressPayloads,
+            MeterRegistry meterRegistry) {
+        this.cacheRepository = cacheRepository;
+        this.ingestionStateRepository = ingestionStateRepository;
+        this.cursorId = cursorId;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+        this.compressPayloads = compressPayloads;
+        this.prunedEntries = meterRegistry.counter("cache.entries.retention", "action", "pruned");
+        this.compactedEntries = meterRegistry.counter("cache.entries.retention", "action", "compacted");
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache-db.retention.interval:PT1H}",
+            initialDelayString = "${app.cache-db.retention.interval:PT1H}")
+    public void enforceRetention() {
+        try {
+            prune();
+            if (compressPayloads) {
+                compact();
+            }
+        } catch (Exception ex) {
+            log.warn("Cache retention run failed: {}", ex.getMessage());
+        }
+    }
+
+    private void prune() {
+        Optional<Instant> ingestedUpTo = ingestionStateRepository.findCursor(cursorId).map(IngestionCursor::fetchedAt);
+        if (ingestedUpTo.isEmpty()) {
+            return;
+        }
+        Instant oldestKept = Instant.now().minus(maxAge);
+        Instant cutoff = ingestedUpTo.get().isBefore(oldestKept) ? ingestedUpTo.get() : oldestKept;
+        int total = 0;
+        int deleted;
+        // small batches keep each delete short next to the collector's upserts
+        do {
+            deleted = cacheRepository.deleteFetchedBefore(cutoff, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        prunedEntries.increment(total);
+        if (total > 0) {
+            log.info("Pruned {} cache entries fetched before {}", total, cutoff);
+        }
+    }
+
+    private void compact() {
+        int total = 0;
+        int compacted;
+        do {
+            compacted = cacheRepository.compactBatch(batchSize);
+            total += compacted;
+        } while (compacted == batchSize);
+        compactedEntries.increment(total);
+        if (total > 0) {
+            log.info("Compressed {} JSONB cache entries", total);
+        }
+    }
+}
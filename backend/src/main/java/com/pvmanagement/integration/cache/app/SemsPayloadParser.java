@@ -0,0 +1,276 @@
+package com.pvmanagement.integration.cache.app;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.pvmanagement.monitoring.domain.PowerStation;
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the {@code data.info} and {@code data.powerflow} blocks of a cached SEMS monitor payload straight off
+ * the token stream. Everything else in the payload (kpi, inverters, weather, ...) is skipped without being
+ * materialised.
+ */
+@Component
+public class SemsPayloadParser {
+
+    private static final DateTimeFormatter FMT_DAY = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private final JsonFactory jsonFactory;
+    private final SmileFactory smileFactory = new SmileFactory();
+
+    public SemsPayloadParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * @return the station described by {@code data.info} (not attached to the persistence context) and the
+     * powerflow reading taken at {@code fetchedAt}, or a {@code null} snapshot if the payload has none
+     * @throws IllegalStateException if the payload carries no station info
+     */
+    public ParsedPayload parse(String json, Instant fetchedAt) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return parse(parser, fetchedAt);
+        }
+    }
+
+    /**
+     * Same as {@link #parse(String, Instant)} for a payload stored as Smile.
+     */
+    public ParsedPayload parseSmile(byte[] smile, Instant fetchedAt) throws IOException {
+        try (JsonParser parser = smileFactory.createParser(smile)) {
+            return parse(parser, fetchedAt);
+        }
+    }
+
+    private ParsedPayload parse(JsonParser parser, Instant fetchedAt) throws IOException {
+        PowerStation station = null;
+        PowerflowSnapshot snapshot = null;
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT || !"data".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String block = parser.currentName();
+                    boolean isObject = parser.nextToken() == JsonToken.START_OBJECT;
+                    if (isObject && "info".equals(block)) {
+                        station = readStation(parser);
+                    } else if (isObject && "powerflow".equals(block)) {
+                        snapshot = readPowerflow(parser, fetchedAt);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        if (station == null) {
+            throw new IllegalStateException("SEMS station data missing");
+        }
+        return new ParsedPayload(station, snapshot);
+    }
+
+    private PowerStation readStation(JsonParser parser) throws IOException {
+        var station = new PowerStation();
+        station.setStationname("");
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "stationname" -> station.setStationname(Objects.requireNonNullElse(text(parser), ""));
+                case "address" -> station.setAddress(text(parser));
+                case "latitude" -> station.setLatitude(number(parser));
+                case "longitude" -> station.setLongitude(number(parser));
+                case "capacity_kWp" -> station.setCapacityKWp(number(parser));
+                case "battery_capacity_kWh" -> station.setBatteryCapacityKWh(number(parser));
+                case "powerstation_type" -> station.setPowerstationType(text(parser));
+                case "status" -> station.setStatus(text(parser));
+                case "org_name" -> station.setOrgName(text(parser));
+                case "org_code" -> station.setOrgCode(text(parser));
+                case "charts_type" -> station.setChartsType(text(parser));
+                case "time_span" -> station.setTimeSpan(text(parser));
+                case "is_powerflow" -> station.setIsPowerflow(bool(parser));
+                case "is_stored" -> station.setIsStored(bool(parser));
+                case "turnon_time" -> station.setTurnonTime(dateTime(parser));
+                case "create_time" -> station.setCreateTime(dateTime(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        if (station.getIsPowerflow() == null) {
+            station.setIsPowerflow(false);
+        }
+        if (station.getIsStored() == null) {
+            station.setIsStored(false);
+        }
+        return station;
+    }
+
+    private PowerflowSnapshot readPowerflow(JsonParser parser, Instant fetchedAt) throws IOException {
+        var snapshot = new PowerflowSnapshot();
+        snapshot.setPowerflowTimestamp(OffsetDateTime.ofInstant(fetchedAt, ZoneOffset.UTC));
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "pv" -> snapshot.setPvW(decimal(parser));
+                case "bettery" -> snapshot.setBatteryW(decimal(parser));
+                case "load" -> snapshot.setLoadW(decimal(parser));
+                case "grid" -> snapshot.setGridW(decimal(parser));
+                case "genset" -> snapshot.setGensetW(decimal(parser));
+                case "microgrid" -> snapshot.setMicrogridW(decimal(parser));
+                case "soc" -> snapshot.setSocPercent(decimal(parser));
+                case "pvStatus" -> snapshot.setPvStatus(code(parser));
+                case "betteryStatus" -> snapshot.setBatteryStatus(code(parser));
+                case "loadStatus" -> snapshot.setLoadStatus(code(parser));
+                case "gridStatus" -> snapshot.setGridStatus(code(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return snapshot;
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+
+    // SEMS flow status codes arrive as numbers or numeric strings
+    private static Short code(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getShortValue();
+        }
+        String value = text(parser);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Short.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean bool(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return false;
+        }
+        return parser.getValueAsBoolean();
+    }
+
+    private static Double number(JsonParser parser) throws IOException {
+        if (!parser.currentToken().isNumeric()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getDoubleValue();
+    }
+
+    private static OffsetDateTime dateTime(JsonParser parser) throws IOException {
+        String value = text(parser);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return LocalDateTime.parse(value.trim(), FMT_DAY).atOffset(ZoneOffset.UTC);
+    }
+
+    private static BigDecimal decimal(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isNumeric()) {
+            return parser.getDecimalValue();
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+        return scanDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    /**
+     * Picks the first number out of display text such as {@code "1.234,5(W)"} or {@code "-0,42 kW"}.
+     * A separator that occurs once is the decimal point; a separator that repeats, or that precedes the
+     * other kind, groups thousands. Returns {@code null} if the text holds no digit.
+     */
+    static BigDecimal scanDecimal(char[] text, int offset, int length) {
+        int end = offset + length;
+        int start = offset;
+        while (start < end && !isDigit(text[start])) {
+            start++;
+        }
+        if (start == end) {
+            return null;
+        }
+        boolean negative = start > offset && text[start - 1] == '-';
+
+        int last = start;
+        int dots = 0;
+        int commas = 0;
+        int lastDot = -1;
+        int lastComma = -1;
+        for (int i = start; i < end; i++) {
+            char c = text[i];
+            if (isDigit(c)) {
+                last = i;
+            } else if (c == '.') {
+                dots++;
+                lastDot = i;
+            } else if (c == ',') {
+                commas++;
+                lastComma = i;
+            } else {
+                break;
+            }
+        }
+
+        int decimalPoint = -1;
+        if (dots > 0 && commas > 0) {
+            decimalPoint = Math.max(lastDot, lastComma);
+        } else if (dots == 1) {
+            decimalPoint = lastDot;
+        } else if (commas == 1) {
+            decimalPoint = lastComma;
+        }
+        if (decimalPoint > last) {
+            decimalPoint = -1;
+        }
+
+        char[] digits = new char[last - start + 2];
+        int n = 0;
+        if (negative) {
+            digits[n++] = '-';
+        }
+        for (int i = start; i <= last; i++) {
+            char c = text[i];
+            if (isDigit(c)) {
+                digits[n++] = c;
+            } else if (i == decimalPoint) {
+                digits[n++] = '.';
+            }
+        }
+        return new BigDecimal(digits, 0, n);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    public record ParsedPayload(PowerStation station, PowerflowSnapshot snapshot) {
+    }
+}
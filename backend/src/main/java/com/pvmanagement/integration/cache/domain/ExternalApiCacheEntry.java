@@ -2,10 +2,16 @@ package com.pvmanagement.integration.cache.domain;
 
 import java.time.Instant;
 
+/**
+ * A cached upstream response. The payload is either {@code responseJson} or, for entries stored compressed,
+ * {@code responseSmile} (already inflated Smile bytes); the other one is {@code null}.
+ */
 public record ExternalApiCacheEntry(
         Long id,
         String cacheKey,
         String responseJson,
+        byte[] responseSmile,
+        String contentHash,
         Integer statusCode,
         String errorMessage,
         Instant fetchedAt,
@@ -0,0 +1,16 @@
+package com.pvmanagement.integration.cache.domain;
+
+import java.time.Instant;
+
+/**
+ * Position of the last ingested cache entry in (fetched_at, id) order.
+ * A {@code null} entry id means "everything fetched after {@code fetchedAt}".
+ */
+public record IngestionCursor(
+        Instant fetchedAt,
+        Long entryId
+) {
+    public static IngestionCursor after(ExternalApiCacheEntry entry) {
+        return new IngestionCursor(entry.fetchedAt(), entry.id());
+    }
+}
@@ -0,0 +1,99 @@
+package com.pvmanagement.integration.cache.infra;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Holds one cache-database connection that LISTENs on {@link ExternalApiCacheRepository#CHANGE_CHANNEL} and
+ * runs a callback whenever entries were written. The callback also runs after every (re)connect, so writes
+ * made while not listening are picked up too.
+ * <p>
+ * The connection is opened outside the cache pool: it is held for the application's lifetime, so it would
+ * permanently take one of the pool's connections, and a pooled connection handed back would keep its LISTEN
+ * registration for the next borrower.
+ */
+@Component
+public class CacheChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheChangeListener.class);
+    private static final int POLL_MILLIS = 10_000;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final DataSource dataSource;
+    private volatile boolean running;
+    private Thread thread;
+
+    public CacheChangeListener(@Qualifier("cacheDataSourceProperties") DataSourceProperties properties) {
+        this.dataSource = properties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+    }
+
+    public synchronized void start(Runnable onChange) {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> listen(onChange), "cache-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void listen(Runnable onChange) {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + ExternalApiCacheRepository.CHANGE_CHANNEL);
+                }
+                log.info("Listening for external_api_cache changes");
+                handleChange(onChange);
+                while (running) {
+                    // a burst of writes arrives as several notifications, handled by one callback
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        handleChange(onChange);
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost external_api_cache listener connection, retrying in {}: {}",
+                        RECONNECT_DELAY, ex.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handleChange(Runnable onChange) {
+        try {
+            onChange.run();
+        } catch (RuntimeException ex) {
+            log.warn("Handling external_api_cache change failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.pvmanagement.integration.cache.infra;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary format of {@code external_api_cache.response_blob}: the payload re-encoded as Smile (binary JSON with
+ * back-referenced field names and short strings) and then deflated. Decoding only inflates, so readers get Smile
+ * bytes they can stream without parsing decimal text.
+ */
+public final class CachePayloadCodec {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+
+    private CachePayloadCodec() {
+    }
+
+    public static byte[] encode(String json) {
+        var out = new ByteArrayOutputStream(json.length() / 4);
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = SMILE_FACTORY.createGenerator(new DeflaterOutputStream(out, deflater))) {
+            // token-by-token copy, the payload is never materialised as a tree
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to encode cache payload", e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] decode(byte[] blob) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(blob))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode cache payload", e);
+        }
+    }
+}
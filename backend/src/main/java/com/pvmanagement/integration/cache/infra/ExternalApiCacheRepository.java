@@ -2,21 +2,33 @@ package com.pvmanagement.integration.cache.infra;
 
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.pvmanagement.integration.cache.domain.ExternalApiCacheEntry;
+import com.pvmanagement.integration.cache.domain.IngestionCursor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class ExternalApiCacheRepository {
 
+    /** Channel notified with the number of entries written whenever {@link #upsertAll} commits. */
+    public static final String CHANGE_CHANNEL = "external_api_cache_changed";
+
     private static final RowMapper<ExternalApiCacheEntry> ROW_MAPPER = (rs, rowNum) -> new ExternalApiCacheEntry(
             rs.getLong("id"),
             rs.getString("cache_key"),
             rs.getString("response_json"),
+            decode(rs.getBytes("response_blob")),
+            rs.getString("content_hash"),
             (Integer) rs.getObject("status_code"),
             rs.getString("error_message"),
             rs.getTimestamp("fetched_at").toInstant(),
@@ -24,42 +36,151 @@ public class ExternalApiCacheRepository {
     );
 
     private final JdbcTemplate jdbcTemplate;
+    private final boolean compressPayloads;
 
-    public ExternalApiCacheRepository(@Qualifier("cacheJdbcTemplate") JdbcTemplate jdbcTemplate) {
+    public ExternalApiCacheRepository(@Qualifier("cacheJdbcTemplate") JdbcTemplate jdbcTemplate,
+            @Value("${app.cache-db.compress-payloads:false}") boolean compressPayloads) {
         this.jdbcTemplate = jdbcTemplate;
+        this.compressPayloads = compressPayloads;
     }
 
     public void upsert(ExternalApiCacheEntry entry) {
-        jdbcTemplate.update("""
-                INSERT INTO external_api_cache (cache_key, response_json, status_code, error_message, fetched_at, ttl_seconds)
-                VALUES (?, ?::jsonb, ?, ?, ?, ?)
-                ON CONFLICT (cache_key) DO UPDATE SET
-                    response_json = EXCLUDED.response_json,
-                    status_code = EXCLUDED.status_code,
-                    error_message = EXCLUDED.error_message,
-                    fetched_at = EXCLUDED.fetched_at,
-                    ttl_seconds = EXCLUDED.ttl_seconds
-                """,
-                entry.cacheKey(),
-                entry.responseJson(),
-                entry.statusCode(),
-                entry.errorMessage(),
-                Timestamp.from(entry.fetchedAt()),
-                entry.ttlSeconds()
+        upsertAll(List.of(entry));
+    }
+
+    /**
+     * Writes all entries with a single multi-row upsert. Entries sharing a cache key collapse to the last one,
+     * since one statement may not update the same row twice. With {@code app.cache-db.compress-payloads} the
+     * JSON is stored as {@link CachePayloadCodec} bytes in {@code response_blob} instead of {@code response_json}.
+     */
+    public void upsertAll(List<ExternalApiCacheEntry> entries) {
+        Map<String, ExternalApiCacheEntry> byKey = new LinkedHashMap<>();
+        entries.forEach(entry -> byKey.put(entry.cacheKey(), entry));
+        if (byKey.isEmpty()) {
+            return;
+        }
+
+        String values = String.join(", ", Collections.nCopies(byKey.size(), "(?, ?::jsonb, ?::bytea, ?, ?, ?, ?, ?)"));
+        List<Object> args = new ArrayList<>(byKey.size() * 8);
+        for (ExternalApiCacheEntry entry : byKey.values()) {
+            args.add(entry.cacheKey());
+            boolean compress = compressPayloads && entry.responseJson() != null;
+            args.add(compress ? null : entry.responseJson());
+            args.add(compress ? CachePayloadCodec.encode(entry.responseJson()) : null);
+            args.add(entry.contentHash());
+            args.add(entry.statusCode());
+            args.add(entry.errorMessage());
+            args.add(Timestamp.from(entry.fetchedAt()));
+            args.add(entry.ttlSeconds());
+        }
+        // the notification is part of the same statement, so listeners hear of the batch exactly when it commits
+        jdbcTemplate.query("""
+                WITH upserted AS (
+                    INSERT INTO external_api_cache (cache_key, response_json, response_blob, content_hash, status_code, error_message, fetched_at, ttl_seconds)
+                    VALUES %s
+                    ON CONFLICT (cache_key) DO UPDATE SET
+                        response_json = EXCLUDED.response_json,
+                        response_blob = EXCLUDED.response_blob,
+                        content_hash = EXCLUDED.content_hash,
+                        status_code = EXCLUDED.status_code,
+                        error_message = EXCLUDED.error_message,
+                        fetched_at = EXCLUDED.fetched_at,
+                        ttl_seconds = EXCLUDED.ttl_seconds
+                    RETURNING id
+                )
+                SELECT pg_notify('%s', count(*)::text) FROM upserted
+                """.formatted(values, CHANGE_CHANNEL),
+                (RowCallbackHandler) rs -> {
+                },
+                args.toArray()
         );
     }
 
-    public List<ExternalApiCacheEntry> findAllNewerThan(Instant since) {
-        if (since == null) {
+    /**
+     * Returns the content hash of the newest entry per station, keyed by the station id embedded in
+     * {@code powerflow:<stationId>:<timestamp>} cache keys.
+     */
+    public Map<String, String> findLatestContentHashes() {
+        Map<String, String> hashes = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                        SELECT DISTINCT ON (station_id) station_id, content_hash
+                        FROM (SELECT split_part(cache_key, ':', 2) AS station_id, content_hash, fetched_at
+                              FROM external_api_cache
+                              WHERE cache_key LIKE 'powerflow:%' AND content_hash IS NOT NULL) latest
+                        ORDER BY station_id, fetched_at DESC
+                        """,
+                (RowCallbackHandler) rs -> hashes.put(rs.getString("station_id"), rs.getString("content_hash"))
+        );
+        return hashes;
+    }
+
+    /**
+     * Returns at most {@code limit} entries strictly after {@code cursor} in (fetched_at, id) order,
+     * so callers can walk the whole table page by page with bounded memory.
+     */
+    public List<ExternalApiCacheEntry> findPageAfter(IngestionCursor cursor, int limit) {
+        if (cursor == null) {
             return jdbcTemplate.query(
-                    "SELECT * FROM external_api_cache ORDER BY fetched_at ASC",
-                    ROW_MAPPER
+                    "SELECT * FROM external_api_cache ORDER BY fetched_at ASC, id ASC LIMIT ?",
+                    ROW_MAPPER,
+                    limit
             );
         }
         return jdbcTemplate.query(
-                "SELECT * FROM external_api_cache WHERE fetched_at > ? ORDER BY fetched_at ASC",
+                "SELECT * FROM external_api_cache WHERE (fetched_at, id) > (?, ?) ORDER BY fetched_at ASC, id ASC LIMIT ?",
                 ROW_MAPPER,
-                Timestamp.from(since)
+                Timestamp.from(cursor.fetchedAt()),
+                cursor.entryId() != null ? cursor.entryId() : Long.MAX_VALUE,
+                limit
         );
     }
+
+    /**
+     * Deletes at most {@code limit} entries fetched before {@code cutoff}.
+     *
+     * @return the number of entries deleted
+     */
+    public int deleteFetchedBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.update("""
+                        DELETE FROM external_api_cache
+                        WHERE id IN (SELECT id FROM external_api_cache WHERE fetched_at < ? LIMIT ?)
+                        """,
+                Timestamp.from(cutoff),
+                limit
+        );
+    }
+
+    /**
+     * Rewrites at most {@code limit} JSONB entries in the compressed format.
+     *
+     * @return the number of entries read for conversion; zero once none are left
+     */
+    public int compactBatch(int limit) {
+        List<Object[]> rows = jdbcTemplate.query("""
+                        SELECT id, response_json::text AS response_json, fetched_at
+                        FROM external_api_cache
+                        WHERE response_json IS NOT NULL
+                        LIMIT ?
+                        """,
+                (rs, rowNum) -> new Object[]{
+                        CachePayloadCodec.encode(rs.getString("response_json")),
+                        rs.getLong("id"),
+                        rs.getTimestamp("fetched_at")
+                },
+                limit
+        );
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // matching fetched_at leaves rows alone that the collector rewrote in the meantime
+        jdbcTemplate.batchUpdate(
+                "UPDATE external_api_cache SET response_blob = ?, response_json = NULL WHERE id = ? AND fetched_at = ?",
+                rows
+        );
+        return rows.size();
+    }
+
+    private static byte[] decode(byte[] blob) {
+        return blob != null ? CachePayloadCodec.decode(blob) : null;
+    }
 }
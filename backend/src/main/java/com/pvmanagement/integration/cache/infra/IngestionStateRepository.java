@@ -1,7 +1,7 @@
 package com.pvmanagement.integration.cache.infra;
 
+import com.pvmanagement.integration.cache.domain.IngestionCursor;
 import java.sql.Timestamp;
-import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -17,27 +17,33 @@ public class IngestionStateRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    public Optional<Instant> findLastFetchedAt(String id) {
-        List<Instant> rows = jdbcTemplate.query(
-                "SELECT last_fetched_at FROM ingestion_state WHERE id = ?",
+    public Optional<IngestionCursor> findCursor(String id) {
+        List<IngestionCursor> rows = jdbcTemplate.query(
+                "SELECT last_fetched_at, last_entry_id FROM ingestion_state WHERE id = ?",
                 (rs, rowNum) -> {
                     Timestamp ts = rs.getTimestamp("last_fetched_at");
-                    return ts != null ? ts.toInstant() : null;
+                    if (ts == null) {
+                        return null;
+                    }
+                    return new IngestionCursor(ts.toInstant(), (Long) rs.getObject("last_entry_id"));
                 },
                 id
         );
         return rows.stream().filter(Objects::nonNull).findFirst();
     }
 
-    public void upsert(String id, Instant instant) {
+    public void upsert(String id, IngestionCursor cursor) {
         jdbcTemplate.update(
                 """
-                INSERT INTO ingestion_state (id, last_fetched_at)
-                VALUES (?, ?)
-                ON CONFLICT (id) DO UPDATE SET last_fetched_at = EXCLUDED.last_fetched_at
+                INSERT INTO ingestion_state (id, last_fetched_at, last_entry_id)
+                VALUES (?, ?, ?)
+                ON CONFLICT (id) DO UPDATE SET
+                    last_fetched_at = EXCLUDED.last_fetched_at,
+                    last_entry_id = EXCLUDED.last_entry_id
                 """,
                 id,
-                instant != null ? Timestamp.from(instant) : null
+                cursor != null ? Timestamp.from(cursor.fetchedAt()) : null,
+                cursor != null ? cursor.entryId() : null
         );
     }
 }
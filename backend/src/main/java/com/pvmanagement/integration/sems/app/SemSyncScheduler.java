@@ -1,5 +1,7 @@
 package com.pvmanagement.integration.sems.app;
 
+import java.time.Instant;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
@@ -13,15 +15,22 @@ public class SemSyncScheduler {
     private static final Logger log = LoggerFactory.getLogger(SemSyncScheduler.class);
 
     private final SemSyncService semSyncService;
+    private final SemsPollPlanner pollPlanner;
 
-    public SemSyncScheduler(SemSyncService semSyncService) {
+    public SemSyncScheduler(SemSyncService semSyncService, SemsPollPlanner pollPlanner) {
         this.semSyncService = semSyncService;
+        this.pollPlanner = pollPlanner;
     }
 
-    @Scheduled(fixedDelayString = "${sems.refresh-interval-ms}")
+    // ticks frequently but only polls the stations the planner considers due
+    @Scheduled(fixedDelayString = "${sems.polling.tick:PT30S}")
     public void refreshData() {
+        List<String> due = pollPlanner.dueStations(Instant.now());
+        if (due.isEmpty()) {
+            return;
+        }
         try {
-            semSyncService.triggerSync();
+            pollPlanner.record(semSyncService.sync(due), Instant.now());
         } catch (Exception ex) {
             log.warn("Scheduled SEMS sync failed: {}", ex.getMessage());
         }
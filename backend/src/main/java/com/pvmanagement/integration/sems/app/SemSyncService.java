@@ -6,15 +6,32 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pvmanagement.integration.cache.domain.ExternalApiCacheEntry;
 import com.pvmanagement.integration.cache.infra.ExternalApiCacheRepository;
 import com.pvmanagement.integration.sems.domain.SemsProperties;
+import com.pvmanagement.integration.sems.domain.StationSyncResult;
 import com.pvmanagement.auth.infra.AuthorizationExpiredException;
 import com.pvmanagement.integration.sems.infra.TransientUpstreamException;
-import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.core.functions.Either;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Service
 public class SemSyncService {
@@ -27,56 +44,207 @@ public class SemSyncService {
     private final ExternalApiCacheRepository cacheRepository;
     private final SemsProperties properties;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final RetryRegistry retryRegistry;
+    // content hash of the last payload stored per station, seeded from the cache DB on first use
+    private final Map<String, String> contentHashes = new ConcurrentHashMap<>();
+    private volatile boolean contentHashesLoaded;
 
     public SemSyncService(SemsClient semsClient,
             ExternalApiCacheRepository cacheRepository,
             SemsProperties properties,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            RetryRegistry retryRegistry) {
         this.semsClient = semsClient;
         this.cacheRepository = cacheRepository;
         this.properties = properties;
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.retryRegistry = retryRegistry;
     }
 
-    @Retry(name = "semsSync")
-    public void triggerSync() {
-        try {
-            JsonNode resp = semsClient.fetchMonitorDetail();
-            Instant fetchedAt = Instant.now();
-            var cacheEntry = new ExternalApiCacheEntry(
-                    null,
-                    buildCacheKey(resp, fetchedAt),
-                    serialize(resp),
-                    200,
-                    null,
-                    fetchedAt,
-                    DEFAULT_TTL_SECONDS
-            );
-            cacheRepository.upsert(cacheEntry);
-            log.debug("Stored SEMS payload in cache with key {}", cacheEntry.cacheKey());
-        } catch (AuthorizationExpiredException e) {
-            throw e;
-        } catch (WebClientResponseException.TooManyRequests e) {
-            throw new TransientUpstreamException("SEMS API rate limit exceeded (HTTP 429)", e);
-        } catch (WebClientResponseException e) {
-            if (e.getStatusCode().is5xxServerError()) {
-                throw new TransientUpstreamException(
-                        "SEMS upstream error " + e.getRawStatusCode() + " " + e.getStatusText(), e
-                );
+    /**
+     * Syncs every configured station, see {@link #sync(List)}.
+     *
+     * @return the number of stations stored
+     */
+    public int triggerSync() {
+        List<String> stationIds = properties.allStationIds();
+        if (stationIds.isEmpty()) {
+            log.warn("No SEMS station ids configured, nothing to sync");
+            return 0;
+        }
+        long stored = sync(stationIds).stream()
+                .filter(result -> result.outcome() == StationSyncResult.Outcome.STORED
+                        || result.outcome() == StationSyncResult.Outcome.UNCHANGED)
+                .count();
+        if (stored == 0) {
+            throw new IllegalStateException("SEMS sync failed for all %d stations".formatted(stationIds.size()));
+        }
+        return (int) stored;
+    }
+
+    /**
+     * Fetches the given stations concurrently (at most {@code sems.concurrency} in flight, each started
+     * after a random delay of up to {@code sems.jitter}) and writes all results with one cache upsert.
+     * Transient failures are retried per station with the {@code semsSync} retry settings; a station that
+     * still fails is logged and reported in its result, so it cannot hold back the others. Payloads whose
+     * powerflow section hashes the same as the last one stored for the station are dropped before they are
+     * serialised, so they cause neither a cache write nor ingestion work.
+     *
+     * @return one result per requested station
+     */
+    public List<StationSyncResult> sync(List<String> stationIds) {
+        loadContentHashes();
+        reactor.util.retry.Retry retry = upstreamRetry();
+        List<Fetched> fetched = Flux.fromIterable(stationIds)
+                .flatMap(stationId -> Mono.delay(jitter())
+                        .then(Mono.defer(() -> fetchStation(stationId)).retryWhen(retry))
+                        .onErrorResume(ex -> {
+                            log.warn("SEMS sync for station {} failed: {}", stationId, ex.getMessage());
+                            var outcome = ex instanceof TransientUpstreamException
+                                    ? StationSyncResult.Outcome.TRANSIENT_FAILURE
+                                    : StationSyncResult.Outcome.FAILED;
+                            return Mono.just(new Fetched(StationSyncResult.failed(stationId, outcome), null));
+                        }), properties.getConcurrency())
+                .collectList()
+                .block();
+        if (fetched == null) {
+            return List.of();
+        }
+
+        List<ExternalApiCacheEntry> entries = fetched.stream()
+                .map(Fetched::entry)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!entries.isEmpty()) {
+            cacheRepository.upsertAll(entries);
+            log.debug("Stored {} SEMS payloads in cache", entries.size());
+            // only remembered once written, so a failed write does not suppress the next attempt
+            fetched.stream()
+                    .filter(f -> f.entry() != null)
+                    .forEach(f -> contentHashes.put(f.result().stationId(), f.entry().contentHash()));
+        }
+        return fetched.stream().map(Fetched::result).toList();
+    }
+
+    private Mono<Fetched> fetchStation(String stationId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return semsClient.fetchMonitorDetail(stationId)
+                .map(resp -> {
+                    Instant fetchedAt = Instant.now();
+                    String upstreamTimestamp = extractUpstreamTimestamp(resp);
+                    JsonNode info = resp.path("data").path("info");
+                    Double latitude = coordinate(info.path("latitude"));
+                    Double longitude = coordinate(info.path("longitude"));
+                    String contentHash = contentHash(resp);
+                    if (contentHash.equals(contentHashes.get(stationId))) {
+                        meterRegistry.counter("sems.payloads.unchanged").increment();
+                        return new Fetched(new StationSyncResult(stationId, StationSyncResult.Outcome.UNCHANGED,
+                                upstreamTimestamp, latitude, longitude), null);
+                    }
+                    var entry = new ExternalApiCacheEntry(
+                            null,
+                            buildCacheKey(stationId, upstreamTimestamp, fetchedAt),
+                            serialize(resp),
+                            null,
+                            contentHash,
+                            200,
+                            null,
+                            fetchedAt,
+                            DEFAULT_TTL_SECONDS
+                    );
+                    var result = new StationSyncResult(stationId, StationSyncResult.Outcome.STORED,
+                            upstreamTimestamp, latitude, longitude);
+                    return new Fetched(result, entry);
+                })
+                .onErrorMap(WebClientResponseException.TooManyRequests.class,
+                        e -> new TransientUpstreamException("SEMS API rate limit exceeded (HTTP 429)", e))
+                .onErrorMap(e -> e instanceof WebClientResponseException w && w.getStatusCode().is5xxServerError(),
+                        e -> {
+                            var w = (WebClientResponseException) e;
+                            return new TransientUpstreamException(
+                                    "SEMS upstream error " + w.getRawStatusCode() + " " + w.getStatusText(), e);
+                        })
+                // one sample per attempt, so retries show up as separate timings
+                .doOnSuccess(entry -> sample.stop(meterRegistry.timer("sems.sync", "outcome", "success")))
+                .doOnError(e -> sample.stop(meterRegistry.timer("sems.sync", "outcome", outcome(e))));
+    }
+
+    // SEMS sends coordinates as numbers or numeric strings, and "" when the plant has none
+    private static Double coordinate(JsonNode node) {
+        double value = node.asDouble(Double.NaN);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof AuthorizationExpiredException) {
+            return "auth_expired";
+        }
+        if (e instanceof TransientUpstreamException && e.getCause() instanceof WebClientResponseException.TooManyRequests) {
+            return "rate_limited";
+        }
+        if (e instanceof TransientUpstreamException) {
+            return "server_error";
+        }
+        if (e instanceof WebClientResponseException) {
+            return "client_error";
+        }
+        return "error";
+    }
+
+    // bridges the resilience4j semsSync settings (attempts, backoff, retryable exceptions) onto the reactive chain
+    private reactor.util.retry.Retry upstreamRetry() {
+        RetryConfig config = retryRegistry.retry("semsSync").getRetryConfig();
+        IntervalBiFunction<Object> interval = config.getIntervalBiFunction();
+        return reactor.util.retry.Retry.from(signals -> signals.concatMap(signal -> {
+            int attempt = (int) signal.totalRetries() + 1;
+            if (attempt >= config.getMaxAttempts() || !config.getExceptionPredicate().test(signal.failure())) {
+                return Mono.error(signal.failure());
             }
-            throw e;
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Unable to serialize SEMS payload", e);
+            return Mono.delay(Duration.ofMillis(interval.apply(attempt, Either.left(signal.failure()))));
+        }));
+    }
+
+    private Duration jitter() {
+        long maxMillis = properties.getJitter().toMillis();
+        return maxMillis <= 0 ? Duration.ZERO : Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxMillis));
+    }
+
+    private void loadContentHashes() {
+        if (contentHashesLoaded) {
+            return;
+        }
+        try {
+            cacheRepository.findLatestContentHashes().forEach(contentHashes::putIfAbsent);
+            contentHashesLoaded = true;
+        } catch (Exception ex) {
+            log.warn("Could not load SEMS content hashes, unchanged payloads are stored again: {}", ex.getMessage());
         }
     }
 
-    private String serialize(JsonNode payload) throws JsonProcessingException {
-        return objectMapper.writeValueAsString(payload);
+    // hashes only the powerflow section: it carries the readings and their timestamp, while info holds
+    // station metadata that does not change what gets ingested
+    private String contentHash(JsonNode payload) {
+        JsonNode powerflow = payload.path("data").path("powerflow");
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(powerflow.isMissingNode() ? payload : powerflow);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash SEMS payload", e);
+        }
     }
 
-    private String buildCacheKey(JsonNode payload, Instant fetchedAt) {
-        String stationId = properties.getStationId();
-        String upstreamTimestamp = extractUpstreamTimestamp(payload);
+    private String serialize(JsonNode payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize SEMS payload", e);
+        }
+    }
+
+    private String buildCacheKey(String stationId, String upstreamTimestamp, Instant fetchedAt) {
         if (upstreamTimestamp == null || upstreamTimestamp.isBlank()) {
             upstreamTimestamp = CACHE_KEY_TS_FORMAT.format(fetchedAt);
         }
@@ -95,4 +263,7 @@ public class SemSyncService {
         }
         return null;
     }
+
+    private record Fetched(StationSyncResult result, ExternalApiCacheEntry entry) {
+    }
 }
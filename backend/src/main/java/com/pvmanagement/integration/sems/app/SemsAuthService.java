@@ -2,22 +2,33 @@ package com.pvmanagement.integration.sems.app;
 
 import com.pvmanagement.integration.sems.domain.SemsProperties;
 import com.pvmanagement.integration.sems.domain.LoginResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
+import reactor.core.publisher.Mono;
 
+/**
+ * Holds the SEMS session token as a ready-made "token" header. Reading it is a single volatile read; logins
+ * are non-blocking and single-flighted, so any number of callers that find the token missing, rejected or due
+ * for renewal share one CrossLogin call. Tokens older than {@code sems.token-max-age} are renewed in the
+ * background while the current one keeps being served.
+ */
 @Service
 public class SemsAuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(SemsAuthService.class);
+
     private final WebClient.Builder builder;
     private final WebClient authClient;
     private final ObjectMapper objectMapper;
     private final SemsProperties properties;
-    private volatile LoginResponse.Data tokenData;
-    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicReference<Token> current = new AtomicReference<>();
+    private final AtomicReference<Mono<Token>> inflight = new AtomicReference<>();
 
     public SemsAuthService(@Value("${sems.base-url}") String baseUrl, ObjectMapper objectMapper,
                            WebClient.Builder builder, SemsProperties properties) {
@@ -29,15 +40,50 @@ public class SemsAuthService {
     }
 
     /** Used on every data call: header name "token" */
-    public String getTokenHeader() {
-        var td = tokenData;
-        if (td != null) return buildRequestTokenHeader(td);
-        lock.lock();
-        try {
-            if (tokenData == null) tokenData = login();  // first-time login
-            return buildRequestTokenHeader(tokenData);
-        } finally {
-            lock.unlock();
+    public Mono<String> tokenHeader() {
+        Token token = current.get();
+        if (token == null) {
+            return refresh(null).map(Token::header);
+        }
+        if (System.currentTimeMillis() >= token.renewAtMillis()) {
+            refresh(token).subscribe(
+                    renewed -> log.debug("Renewed SEMS token ahead of expiry"),
+                    ex -> log.warn("Proactive SEMS token renewal failed: {}", ex.getMessage()));
+        }
+        return Mono.just(token.header());
+    }
+
+    /**
+     * Called by the WebClient filter on 401/expired message. Logs in again unless {@code rejectedTokenHeader}
+     * has already been replaced, so concurrent station fetches rejected at once reuse the first new token.
+     */
+    public Mono<String> refreshRejected(String rejectedTokenHeader) {
+        Token token = current.get();
+        if (token != null && !token.header().equals(rejectedTokenHeader)) {
+            return Mono.just(token.header());
+        }
+        return refresh(token).map(Token::header);
+    }
+
+    // starts a login unless one is running or stale has been replaced meanwhile
+    private Mono<Token> refresh(Token stale) {
+        while (true) {
+            Mono<Token> running = inflight.get();
+            if (running != null) {
+                return running;
+            }
+            Token token = current.get();
+            if (token != stale) {
+                return Mono.just(token);
+            }
+            // cache() makes the login run once for every subscriber; only the winner of the CAS subscribes it
+            Mono<Token> login = login()
+                    .doOnNext(current::set)
+                    .doFinally(signal -> inflight.set(null))
+                    .cache();
+            if (inflight.compareAndSet(null, login)) {
+                return login;
+            }
         }
     }
 
@@ -54,7 +100,7 @@ public class SemsAuthService {
         }
     }
 
-    /** The "token" header for data requests */
+    /** The "token" header for data requests, serialised once per login */
     private String buildRequestTokenHeader(LoginResponse.Data td) {
         try {
             return objectMapper.writeValueAsString(Map.of(
@@ -71,36 +117,26 @@ public class SemsAuthService {
         }
     }
 
-    /** Called by your WebClient filter on 401/expired message to fetch a fresh token. */
-    public void forceRefresh() {
-        lock.lock();
-        try {
-            tokenData = login();
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    private LoginResponse.Data login() {
+    private Mono<Token> login() {
         var req = Map.of("account", properties.getAccount(),
                          "pwd",     properties.getPassword());
 
+        return Mono.defer(() -> authClient.post()
+                        .uri("/Common/CrossLogin")
+                        .header("Token", tokenMetadataHeader())
+                        .bodyValue(req)
+                        .retrieve()
+                        .bodyToMono(LoginResponse.class))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("SEMS login failed: null response")))
+                .flatMap(resp -> {
+                    if (!resp.isSuccess()) {
+                        return Mono.error(new IllegalStateException("SEMS login failed: " + resp.msg()));
+                    }
+                    long renewAt = System.currentTimeMillis() + properties.getTokenMaxAge().toMillis();
+                    return Mono.just(new Token(buildRequestTokenHeader(resp.data()), renewAt));
+                });
+    }
 
-        var resp = authClient.post()
-                             .uri("/Common/CrossLogin")
-                             .header("Token", tokenMetadataHeader())
-                             .bodyValue(req)
-                             .retrieve()
-                             .bodyToMono(LoginResponse.class)
-                             .block();
-
-        if (resp == null || !resp.isSuccess()) {
-            throw new IllegalStateException("SEMS login failed: " + (resp != null ?
-                    resp.msg() :
-                    "null response"));
-        }
-
-        return resp.data();
+    private record Token(String header, long renewAtMillis) {
     }
 }
-
@@ -0,0 +1,168 @@
+package com.pvmanagement.integration.sems.app;
+
+import com.pvmanagement.integration.sems.domain.SemsProperties;
+import com.pvmanagement.integration.sems.domain.StationSyncResult;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides per station when the next SEMS poll is due. Stations are polled every {@code refresh-interval-ms}
+ * around daylight and every {@code polling.night-interval} otherwise; the interval doubles while the upstream
+ * timestamp does not move (up to {@code polling.max-unchanged-interval}) and after each rate limit or upstream
+ * error (up to {@code polling.max-backoff}). Stations without known coordinates are treated as always in daylight.
+ */
+@Component
+public class SemsPollPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(SemsPollPlanner.class);
+    private static final int MAX_DOUBLINGS = 16;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final SemsProperties properties;
+    private final Map<String, StationState> states = new ConcurrentHashMap<>();
+
+    public SemsPollPlanner(SemsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the configured stations whose poll is due and provisionally schedules them one regular interval
+     * ahead, so a cycle that fails as a whole is not repeated on every tick.
+     */
+    public List<String> dueStations(Instant now) {
+        List<String> due = new ArrayList<>();
+        for (String stationId : properties.allStationIds()) {
+            StationState state = states.computeIfAbsent(stationId, id -> new StationState(now));
+            if (!now.isBefore(state.nextPollAt)) {
+                due.add(stationId);
+                state.nextPollAt = now.plus(regularInterval(state, now));
+            }
+        }
+        return due;
+    }
+
+    public void record(List<StationSyncResult> results, Instant now) {
+        for (StationSyncResult result : results) {
+            StationState state = states.computeIfAbsent(result.stationId(), id -> new StationState(now));
+            Duration interval = nextInterval(state, result, now);
+            state.nextPollAt = now.plus(interval);
+            log.debug("Next SEMS poll for station {} in {} ({})", result.stationId(), interval, result.outcome());
+        }
+    }
+
+    public Instant nextPollAt(String stationId) {
+        StationState state = states.get(stationId);
+        return state != null ? state.nextPollAt : null;
+    }
+
+    private Duration nextInterval(StationState state, StationSyncResult result, Instant now) {
+        switch (result.outcome()) {
+            case TRANSIENT_FAILURE -> {
+                state.failures++;
+                Duration backoff = cap(baseInterval().multipliedBy(doublings(state.failures)),
+                        properties.getPolling().getMaxBackoff());
+                return max(backoff, regularInterval(state, now));
+            }
+            case FAILED -> {
+                return regularInterval(state, now);
+            }
+            default -> {
+                state.failures = 0;
+                if (result.latitude() != null && result.longitude() != null) {
+                    state.latitude = result.latitude();
+                    state.longitude = result.longitude();
+                }
+                String timestamp = result.upstreamTimestamp();
+                boolean unchanged = result.outcome() == StationSyncResult.Outcome.UNCHANGED
+                        || timestamp != null && timestamp.equals(state.upstreamTimestamp);
+                state.unchanged = unchanged ? state.unchanged + 1 : 0;
+                state.upstreamTimestamp = timestamp;
+                Duration regular = regularInterval(state, now);
+                return cap(regular.multipliedBy(doublings(state.unchanged)),
+                        max(regular, properties.getPolling().getMaxUnchangedInterval()));
+            }
+        }
+    }
+
+    private Duration regularInterval(StationState state, Instant now) {
+        if (state.latitude == null || isDaylight(state.latitude, state.longitude, now,
+                properties.getPolling().getDaylightMargin())) {
+            return baseInterval();
+        }
+        return max(baseInterval(), properties.getPolling().getNightInterval());
+    }
+
+    private Duration baseInterval() {
+        return Duration.ofMillis(properties.getRefreshIntervalMs());
+    }
+
+    /**
+     * Whether {@code now} lies between sunrise and sunset (widened by {@code margin}) at the given position,
+     * using the NOAA approximation of the solar declination and equation of time.
+     */
+    static boolean isDaylight(double latitude, double longitude, Instant now, Duration margin) {
+        ZonedDateTime utc = now.atZone(ZoneOffset.UTC);
+        double minuteOfDay = utc.getHour() * 60 + utc.getMinute() + utc.getSecond() / 60.0;
+        double gamma = 2 * Math.PI / 365 * (utc.getDayOfYear() - 1 + (minuteOfDay / 60 - 12) / 24);
+        double equationOfTime = 229.18 * (0.000075 + 0.001868 * Math.cos(gamma) - 0.032077 * Math.sin(gamma)
+                - 0.014615 * Math.cos(2 * gamma) - 0.040849 * Math.sin(2 * gamma));
+        double declination = 0.006918 - 0.399912 * Math.cos(gamma) + 0.070257 * Math.sin(gamma)
+                - 0.006758 * Math.cos(2 * gamma) + 0.000907 * Math.sin(2 * gamma)
+                - 0.002697 * Math.cos(3 * gamma) + 0.00148 * Math.sin(3 * gamma);
+        double lat = Math.toRadians(latitude);
+        double cosHourAngle = Math.cos(Math.toRadians(90.833)) / (Math.cos(lat) * Math.cos(declination))
+                - Math.tan(lat) * Math.tan(declination);
+        if (cosHourAngle >= 1) {
+            return false; // polar night
+        }
+        if (cosHourAngle <= -1) {
+            return true; // midnight sun
+        }
+        double hourAngle = Math.toDegrees(Math.acos(cosHourAngle));
+        double sunrise = 720 - 4 * (longitude + hourAngle) - equationOfTime - margin.toMinutes();
+        double sunset = 720 - 4 * (longitude - hourAngle) - equationOfTime + margin.toMinutes();
+        // far from Greenwich the local day straddles the UTC date line
+        for (long shift = -MINUTES_PER_DAY; shift <= MINUTES_PER_DAY; shift += MINUTES_PER_DAY) {
+            double minute = minuteOfDay + shift;
+            if (minute >= sunrise && minute <= sunset) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long doublings(int count) {
+        return 1L << Math.min(count, MAX_DOUBLINGS);
+    }
+
+    private static Duration cap(Duration value, Duration ceiling) {
+        return value.compareTo(ceiling) > 0 ? ceiling : value;
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static final class StationState {
+
+        private Instant nextPollAt;
+        private String upstreamTimestamp;
+        private int unchanged;
+        private int failures;
+        private Double latitude;
+        private Double longitude;
+
+        private StationState(Instant nextPollAt) {
+            this.nextPollAt = nextPollAt;
+        }
+    }
+}
@@ -3,6 +3,12 @@ package com.pvmanagement.integration.sems.domain;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 @Component
 @ConfigurationProperties(prefix = "sems")
 public class SemsProperties {
@@ -12,6 +18,13 @@ public class SemsProperties {
     private String version = "v2.1.0";
     private String language = "en";
     private String stationId;
+    private List<String> stationIds = new ArrayList<>();
+    private int concurrency = 4;
+    private Duration jitter = Duration.ofSeconds(2);
+    private long refreshIntervalMs = 180_000;
+    private final Polling polling = new Polling();
+    // tokens older than this are renewed in the background before SEMS rejects them
+    private Duration tokenMaxAge = Duration.ofHours(1);
     private String account;
     private String password;
 
@@ -55,6 +68,63 @@ public class SemsProperties {
         this.stationId = stationId;
     }
 
+    public List<String> getStationIds() {
+        return stationIds;
+    }
+
+    public void setStationIds(List<String> stationIds) {
+        this.stationIds = stationIds;
+    }
+
+    /**
+     * {@code station-ids} plus the single {@code station-id}, if set, without blanks or duplicates.
+     */
+    public List<String> allStationIds() {
+        Set<String> ids = new LinkedHashSet<>();
+        if (stationId != null) {
+            ids.add(stationId);
+        }
+        ids.addAll(stationIds);
+        ids.removeIf(String::isBlank);
+        return List.copyOf(ids);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Duration getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(Duration jitter) {
+        this.jitter = jitter;
+    }
+
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    public Polling getPolling() {
+        return polling;
+    }
+
+    public Duration getTokenMaxAge() {
+        return tokenMaxAge;
+    }
+
+    public void setTokenMaxAge(Duration tokenMaxAge) {
+        this.tokenMaxAge = tokenMaxAge;
+    }
+
     public String getAccount() {
         return account;
     }
@@ -70,4 +140,60 @@ public class SemsProperties {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    /**
+     * Adaptive polling around the daytime {@code refresh-interval-ms}.
+     */
+    public static class Polling {
+
+        // how often the scheduler checks which stations are due
+        private Duration tick = Duration.ofSeconds(30);
+        private Duration nightInterval = Duration.ofMinutes(30);
+        // ceiling while the upstream timestamp keeps repeating
+        private Duration maxUnchangedInterval = Duration.ofMinutes(15);
+        // ceiling for the backoff after rate limits and upstream errors
+        private Duration maxBackoff = Duration.ofMinutes(30);
+        // polled at the daytime rate this long before sunrise and after sunset
+        private Duration daylightMargin = Duration.ofMinutes(30);
+
+        public Duration getTick() {
+            return tick;
+        }
+
+        public void setTick(Duration tick) {
+            this.tick = tick;
+        }
+
+        public Duration getNightInterval() {
+            return nightInterval;
+        }
+
+        public void setNightInterval(Duration nightInterval) {
+            this.nightInterval = nightInterval;
+        }
+
+        public Duration getMaxUnchangedInterval() {
+            return maxUnchangedInterval;
+        }
+
+        public void setMaxUnchangedInterval(Duration maxUnchangedInterval) {
+            this.maxUnchangedInterval = maxUnchangedInterval;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getDaylightMargin() {
+            return daylightMargin;
+        }
+
+        public void setDaylightMargin(Duration daylightMargin) {
+            this.daylightMargin = daylightMargin;
+        }
+    }
 }
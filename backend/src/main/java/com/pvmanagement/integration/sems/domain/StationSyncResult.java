@@ -0,0 +1,27 @@
+package com.pvmanagement.integration.sems.domain;
+
+/**
+ * Outcome of fetching one station in a sync cycle. The upstream timestamp and coordinates are only set
+ * when a payload was received and carried them.
+ */
+public record StationSyncResult(
+        String stationId,
+        Outcome outcome,
+        String upstreamTimestamp,
+        Double latitude,
+        Double longitude
+) {
+
+    public enum Outcome {
+        STORED,
+        // same powerflow content as the last stored payload, nothing written
+        UNCHANGED,
+        // 429 or 5xx that survived the per-station retries
+        TRANSIENT_FAILURE,
+        FAILED
+    }
+
+    public static StationSyncResult failed(String stationId, Outcome outcome) {
+        return new StationSyncResult(stationId, outcome, null, null, null);
+    }
+}
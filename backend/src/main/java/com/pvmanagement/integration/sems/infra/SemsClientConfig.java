@@ -1,16 +1,24 @@
 package com.pvmanagement.integration.sems.infra;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pvmanagement.integration.sems.app.SemsAuthService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.reactive.function.client.ClientRequest;
-import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
 
 @Configuration
 public class SemsClientConfig {
@@ -18,12 +26,15 @@ public class SemsClientConfig {
     private static final String RETRIED_HDR = "X-Sems-Retried";
 
     @Bean("semsWebClient")
-    WebClient semsWebClient(WebClient.Builder builder,
+    public WebClient semsWebClient(WebClient.Builder builder,
             @Value("${sems.base-url}") String baseUrl,
             SemsAuthService auth,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
 
-        final var mapper = objectMapper;
+        final var jsonFactory = objectMapper.getFactory();
+        final Counter unauthorizedRetries = meterRegistry.counter("sems.auth.retries", "trigger", "unauthorized");
+        final Counter expiredBodyRetries = meterRegistry.counter("sems.auth.retries", "trigger", "expired_body");
 
         return builder
                 .baseUrl(baseUrl)
@@ -36,9 +47,8 @@ public class SemsClientConfig {
                         return next.exchange(request);
                     }
 
-                    // Get (possibly cached) token header on a blocking-friendly pool
-                    return Mono.fromCallable(auth::getTokenHeader)
-                            .subscribeOn(Schedulers.boundedElastic())
+                    // cached header, or the shared in-flight login
+                    return auth.tokenHeader()
                             .flatMap(tokenHeader -> {
                                 ClientRequest withToken = ClientRequest.from(request)
                                         .headers(h -> h.set("token", tokenHeader))
@@ -47,11 +57,9 @@ public class SemsClientConfig {
                                 return next.exchange(withToken).flatMap(response -> {
                                     // 1) Standard 401 → refresh + retry once (guarded)
                                     if (response.statusCode() == HttpStatus.UNAUTHORIZED && !alreadyRetried) {
+                                        unauthorizedRetries.increment();
                                         return response.bodyToMono(Void.class)
-                                                .then(Mono.fromRunnable(auth::forceRefresh)
-                                                        .subscribeOn(Schedulers.boundedElastic()))
-                                                .then(Mono.fromCallable(auth::getTokenHeader)
-                                                        .subscribeOn(Schedulers.boundedElastic()))
+                                                .then(auth.refreshRejected(tokenHeader))
                                                 .flatMap(newHeader -> {
                                                     ClientRequest retryReq = ClientRequest.from(request)
                                                             .headers(h -> {
@@ -65,30 +73,27 @@ public class SemsClientConfig {
 
                                     // 2) GoodWe quirk: 200 OK but body says "authorization expired" → refresh + retry once (guarded)
                                     if (!alreadyRetried && response.statusCode().is2xxSuccessful()) {
-                                        return response.bodyToMono(String.class).flatMap(body -> {
-                                            if (isAuthExpiredBody(body, mapper)) {
-                                                return Mono.fromRunnable(auth::forceRefresh)
-                                                        .subscribeOn(Schedulers.boundedElastic())
-                                                        .then(Mono.fromCallable(auth::getTokenHeader)
-                                                                .subscribeOn(Schedulers.boundedElastic()))
-                                                        .flatMap(newHeader -> {
-                                                            ClientRequest retryReq = ClientRequest.from(request)
-                                                                    .headers(h -> {
-                                                                        h.set("token", newHeader);
-                                                                        h.set(RETRIED_HDR, "1"); // guard
-                                                                    })
-                                                                    .build();
-                                                            return next.exchange(retryReq);
-                                                        });
-                                            }
-                                            // Not expired → rebuild response because we consumed the body
-                                            ClientResponse rebuilt = ClientResponse.create(response.statusCode())
-                                                    .headers(h -> h.addAll(response.headers().asHttpHeaders()))
-                                                    .cookies(c -> c.addAll(response.cookies()))
-                                                    .body(body)
-                                                    .build();
-                                            return Mono.just(rebuilt);
-                                        });
+                                        return DataBufferUtils.join(response.bodyToFlux(DataBuffer.class))
+                                                .flatMap(body -> {
+                                                    if (isAuthExpiredBody(body, jsonFactory)) {
+                                                        DataBufferUtils.release(body);
+                                                        expiredBodyRetries.increment();
+                                                        return auth.refreshRejected(tokenHeader)
+                                                                .flatMap(newHeader -> {
+                                                                    ClientRequest retryReq = ClientRequest.from(request)
+                                                                            .headers(h -> {
+                                                                                h.set("token", newHeader);
+                                                                                h.set(RETRIED_HDR, "1"); // guard
+                                                                            })
+                                                                            .build();
+                                                                    return next.exchange(retryReq);
+                                                                });
+                                                    }
+                                                    // Not expired → hand the joined buffer on as the body, no copy
+                                                    return Mono.just(response.mutate().body(Flux.just(body)).build());
+                                                })
+                                                .switchIfEmpty(Mono.fromSupplier(() ->
+                                                        response.mutate().body(Flux.empty()).build()));
                                     }
 
                                     // 3) Anything else → pass through as-is
@@ -99,20 +104,35 @@ public class SemsClientConfig {
                 .build();
     }
 
-    /** Returns true if body JSON has a msg that indicates expired auth (case-insensitive). */
-    private boolean isAuthExpiredBody(String body, ObjectMapper mapper) {
-        try {
-            var node = mapper.readTree(body);
-            var msg = node.path("msg").asText("");
-            if (msg.isEmpty()) return false;
-            var lower = msg.toLowerCase();
-            // Add more variants if you encounter i18n/alternate phrasings
-            return lower.contains("authorization has expired")
-                    || lower.contains("login again")
-                    || lower.contains("re-login")
-                    || lower.contains("relogin");
+    /**
+     * Returns true if the top-level "msg" indicates expired auth (case-insensitive). SEMS puts msg ahead of
+     * data, so the parser normally stops after the first few tokens; nested values are skipped, not built.
+     */
+    private boolean isAuthExpiredBody(DataBuffer body, JsonFactory jsonFactory) {
+        int start = body.readPosition();
+        try (InputStream in = body.asInputStream(); JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"msg".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value != JsonToken.VALUE_STRING) return false;
+                var lower = parser.getText().toLowerCase();
+                // Add more variants if you encounter i18n/alternate phrasings
+                return lower.contains("authorization has expired")
+                        || lower.contains("login again")
+                        || lower.contains("re-login")
+                        || lower.contains("relogin");
+            }
+            return false;
         } catch (Exception ignore) {
             return false; // not JSON or no "msg" → treat as normal body
+        } finally {
+            // asInputStream() advances the read position; rewind so downstream sees the whole body
+            body.readPosition(start);
         }
     }
 }
@@ -0,0 +1,186 @@
+package com.pvmanagement.monitoring.app;
+
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reduces a time-ordered history stream to at most {@code maxPoints} points without flattening its shape.
+ * <p>
+ * The range is split into {@code maxPoints / 2} equally wide time buckets. Every non-empty bucket yields two
+ * points in time order: the first carries, per channel, whichever of its minimum and maximum occurred first,
+ * the second the other one. Their timestamps are the earliest and the latest of those occurrences, so a peak
+ * or a dip inside a bucket survives the reduction. A bucket whose channels are all constant collapses to a
+ * single point, and with {@code maxPoints} of one the whole range yields its mean. Rollup buckets feed their
+ * stored extremes and means instead of single samples.
+ * <p>
+ * Only the extremes of the current bucket are held, and points are handed on in one reused chunk, so the
+ * reduction keeps the constant memory footprint of the streaming read.
+ */
+public class HistoryDownsampler implements Consumer<PowerflowSeries> {
+
+    private static final int CHANNELS = 5;
+    private static final int CHUNK_SIZE = 256;
+
+    private final Consumer<PowerflowSeries> downstream;
+    private final long fromSecond;
+    private final long bucketSeconds;
+    private final boolean extremes;
+    private final PowerflowSeries out = new PowerflowSeries(CHUNK_SIZE);
+
+    private long bucket = -1;
+    private int samples;
+    private long firstSecond;
+    private long lastSecond;
+    private long timestampSum;
+    private final float[] min = new float[CHANNELS];
+    private final float[] max = new float[CHANNELS];
+    private final long[] minAt = new long[CHANNELS];
+    private final long[] maxAt = new long[CHANNELS];
+    private final double[] sums = new double[CHANNELS];
+    private final int[] counts = new int[CHANNELS];
+    private final float[] first = new float[CHANNELS];
+    private final float[] second = new float[CHANNELS];
+
+    public HistoryDownsampler(OffsetDateTime from, OffsetDateTime to, int maxPoints, Consumer<PowerflowSeries> downstream) {
+        if (maxPoints < 1) {
+            throw new IllegalArgumentException("maxPoints must be positive");
+        }
+        this.downstream = downstream;
+        this.fromSecond = from.toEpochSecond();
+        this.extremes = maxPoints > 1;
+        int buckets = buckets(maxPoints);
+        long rangeSeconds = Math.max(1, to.toEpochSecond() - fromSecond + 1);
+        this.bucketSeconds = Math.max(1, (rangeSeconds + buckets - 1) / buckets);
+    }
+
+    /**
+     * The number of time buckets a range is split into for {@code maxPoints}.
+     */
+    public static int buckets(int maxPoints) {
+        return Math.max(1, maxPoints / 2);
+    }
+
+    @Override
+    public void accept(PowerflowSeries chunk) {
+        accept(chunk, chunk, chunk);
+    }
+
+    /**
+     * Adds pre-aggregated samples, e.g. rollup buckets: per timestamp the means and the extremes of each
+     * channel, in three series sharing their timestamps.
+     */
+    public void accept(PowerflowSeries means, PowerflowSeries minima, PowerflowSeries maxima) {
+        for (int i = 0; i < means.size(); i++) {
+            long second = means.epochSecond(i);
+            start(second);
+            add(0, second, means.pvW(i), minima.pvW(i), maxima.pvW(i));
+            add(1, second, means.batteryW(i), minima.batteryW(i), maxima.batteryW(i));
+            add(2, second, means.loadW(i), minima.loadW(i), maxima.loadW(i));
+            add(3, second, means.gridW(i), minima.gridW(i), maxima.gridW(i));
+            add(4, second, means.socPercent(i), minima.socPercent(i), maxima.socPercent(i));
+        }
+    }
+
+    /**
+     * Emits the last pending bucket; call once the source is exhausted.
+     */
+    public void finish() {
+        emitBucket();
+        flush();
+    }
+
+    private void start(long second) {
+        long sampleBucket = Math.max(0, (second - fromSecond) / bucketSeconds);
+        if (sampleBucket != bucket) {
+            emitBucket();
+            bucket = sampleBucket;
+            firstSecond = second;
+        }
+        lastSecond = second;
+        timestampSum += second - fromSecond;
+        samples++;
+    }
+
+    private void add(int channel, long second, float mean, float low, float high) {
+        if (Float.isNaN(mean)) {
+            return;
+        }
+        if (counts[channel] == 0 || low < min[channel]) {
+            min[channel] = low;
+            minAt[channel] = second;
+        }
+        if (counts[channel] == 0 || high > max[channel]) {
+            max[channel] = high;
+            maxAt[channel] = second;
+        }
+        sums[channel] += mean;
+        counts[channel]++;
+    }
+
+    private void emitBucket() {
+        if (samples == 0) {
+            return;
+        }
+        if (extremes) {
+            emitExtremes();
+        } else {
+            emit(fromSecond + timestampSum / samples, means());
+        }
+        samples = 0;
+        timestampSum = 0;
+        Arrays.fill(sums, 0);
+        Arrays.fill(counts, 0);
+    }
+
+    private void emitExtremes() {
+        long firstAt = Long.MAX_VALUE;
+        long secondAt = Long.MIN_VALUE;
+        boolean varies = false;
+        for (int c = 0; c < CHANNELS; c++) {
+            if (counts[c] == 0) {
+                first[c] = Float.NaN;
+                second[c] = Float.NaN;
+                continue;
+            }
+            boolean minFirst = minAt[c] <= maxAt[c];
+            first[c] = minFirst ? min[c] : max[c];
+            second[c] = minFirst ? max[c] : min[c];
+            firstAt = Math.min(firstAt, Math.min(minAt[c], maxAt[c]));
+            secondAt = Math.max(secondAt, Math.max(minAt[c], maxAt[c]));
+            varies |= min[c] != max[c];
+        }
+        if (firstAt == Long.MAX_VALUE) {
+            // no channel had a value, keep the bucket's time span
+            firstAt = firstSecond;
+            secondAt = lastSecond;
+        }
+        emit(firstAt, first);
+        if (secondAt != firstAt || varies) {
+            emit(secondAt, second);
+        }
+    }
+
+    private float[] means() {
+        for (int c = 0; c < CHANNELS; c++) {
+            first[c] = counts[c] == 0 ? Float.NaN : (float) (sums[c] / counts[c]);
+        }
+        return first;
+    }
+
+    private void emit(long epochSecond, float[] values) {
+        out.add(epochSecond, values[0], values[1], values[2], values[3], values[4]);
+        if (out.isFull()) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (out.size() > 0) {
+            downstream.accept(out);
+            out.clear();
+        }
+    }
+}
@@ -1,71 +1,152 @@
 package com.pvmanagement.monitoring.app;
 
-import com.pvmanagement.monitoring.domain.PowerStation;
+import com.pvmanagement.CacheConfig;
 import com.pvmanagement.monitoring.domain.CurrentMeasurementsDto;
 import com.pvmanagement.monitoring.domain.HistoryRequestDto;
-import com.pvmanagement.monitoring.domain.HistoryResponseDto;
+import com.pvmanagement.monitoring.domain.PowerflowReading;
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+import com.pvmanagement.monitoring.domain.RollupTier;
 import com.pvmanagement.monitoring.infra.PowerStationRepository;
-import com.pvmanagement.monitoring.infra.PowerflowSnapshotRepository;
+import com.pvmanagement.monitoring.infra.PowerflowPartitionRepository;
+import com.pvmanagement.monitoring.infra.PowerflowReadRepository;
+import com.pvmanagement.monitoring.infra.PowerflowRollupRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.OffsetDateTime;
-import java.util.List;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
 
 @Service
 @Transactional(readOnly = true)
 public class MeasurementService {
 
+    private static final int HISTORY_CHUNK_SIZE = 500;
+
     private final PowerStationRepository powerStationRepository;
-    private final PowerflowSnapshotRepository powerflowSnapshotRepository;
+    private final PowerflowRollupRepository powerflowRollupRepository;
+    private final PowerflowReadRepository powerflowReadRepository;
+    private final RecentSnapshotBuffer recentSnapshotBuffer;
+    private final PowerflowPartitionRepository partitionRepository;
+    private final TransactionTemplate readOnlyTransaction;
 
     public MeasurementService(PowerStationRepository powerStationRepository,
-                              PowerflowSnapshotRepository powerflowSnapshotRepository
-    ) {
+                              PowerflowRollupRepository powerflowRollupRepository,
+                              PowerflowReadRepository powerflowReadRepository,
+                              RecentSnapshotBuffer recentSnapshotBuffer,
+                              PowerflowPartitionRepository partitionRepository,
+                              PlatformTransactionManager transactionManager) {
         this.powerStationRepository = powerStationRepository;
-        this.powerflowSnapshotRepository = powerflowSnapshotRepository;
+        this.powerflowRollupRepository = powerflowRollupRepository;
+        this.powerflowReadRepository = powerflowReadRepository;
+        this.recentSnapshotBuffer = recentSnapshotBuffer;
+        this.partitionRepository = partitionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
-    public CurrentMeasurementsDto current(Long powerStationId) {
-        PowerStation station = powerStationRepository.findById(powerStationId)
-                .orElseThrow(() -> new IllegalArgumentException("Power station not found"));
-
-        var snapshot = powerflowSnapshotRepository.findFirstByPowerStationOrderByPowerflowTimestampDesc(station)
-                .orElse(null);
+    // reads served by the RecentSnapshotBuffer must not even check a connection out, so the methods below only
+    // open a transaction for the database fallback
 
-        if (snapshot == null) {
-            return null;
+    @Cacheable(cacheNames = CacheConfig.CURRENT_MEASUREMENTS, key = "#powerStationId")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CurrentMeasurementsDto current(Long powerStationId) {
+        var buffered = recentSnapshotBuffer.latest(powerStationId);
+        if (buffered.isPresent()) {
+            return buffered.get().toCurrentMeasurements();
+        }
+        if (!powerStationRepository.existsById(powerStationId)) {
+            throw new IllegalArgumentException("Power station not found");
         }
+        return powerflowReadRepository.findLatest(powerStationId)
+                .map(PowerflowReading::toCurrentMeasurements)
+                .orElse(null);
+    }
 
-        return new CurrentMeasurementsDto(
-                snapshot.getPowerflowTimestamp(),
-                snapshot.getPvW(),
-                snapshot.getBatteryW(),
-                snapshot.getLoadW(),
-                snapshot.getGridW(),
-                snapshot.getSocPercent()
-        );
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void history(Long powerStationId, HistoryRequestDto request, Consumer<PowerflowSeries> action) {
+        history(powerStationId, request.from(), request.to(), request.maxPoints(), action);
     }
 
-    public List<HistoryResponseDto> history(Long powerStationId, HistoryRequestDto request) {
-        PowerStation station = powerStationRepository.findById(powerStationId)
-                .orElseThrow(() -> new IllegalArgumentException("Power station not found"));
+    /**
+     * Like {@link #history(Long, OffsetDateTime, OffsetDateTime, Consumer)}, but reduced to at most
+     * {@code maxPoints} points by the {@link HistoryDownsampler} when a limit is given. The coarsest rollup tier
+     * that still resolves its buckets is read instead of raw snapshots wherever one exists.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void history(Long powerStationId,
+                        OffsetDateTime from,
+                        OffsetDateTime to,
+                        Integer maxPoints,
+                        Consumer<PowerflowSeries> action) {
+        if (maxPoints == null) {
+            history(powerStationId, from, to, action);
+            return;
+        }
+        var downsampler = new HistoryDownsampler(from, to, maxPoints, action);
+        RollupTier tier = RollupTier.coarsestFor(from, to, HistoryDownsampler.buckets(maxPoints));
+        // raw samples held in memory beat any rollup read
+        if (tier == null || recentSnapshotBuffer.covers(powerStationId, from)) {
+            history(powerStationId, from, to, downsampler);
+        } else {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                if (!powerStationRepository.existsById(powerStationId)) {
+                    throw new IllegalArgumentException("Power station not found");
+                }
+                powerflowRollupRepository.forEachBucket(powerStationId, tier, from, to, downsampler::accept);
+            });
+        }
+        downsampler.finish();
+    }
 
-        OffsetDateTime from = request.from();
-        OffsetDateTime to = request.to();
+    /**
+     * Hands every snapshot in the range to {@code action} in timestamp order without collecting them.
+     * Rows are read column-wise into reused {@link PowerflowSeries} chunks, so memory stays flat
+     * regardless of the range and no entities or per-row objects are built. Ranges within the {@link RecentSnapshotBuffer} are
+     * served from memory. Months whose raw partition was retired have no snapshots left and are served from
+     * the 15-minute rollups instead.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void history(Long powerStationId, OffsetDateTime from, OffsetDateTime to, Consumer<PowerflowSeries> action) {
+        if (recentSnapshotBuffer.history(powerStationId, from, to, action)) {
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            if (!powerStationRepository.existsById(powerStationId)) {
+                throw new IllegalArgumentException("Power station not found");
+            }
+            OffsetDateTime next = from;
+            for (YearMonth month : partitionRepository.findRetiredMonths(month(from), month(to))) {
+                OffsetDateTime monthStart = month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+                OffsetDateTime monthEnd = monthStart.plusMonths(1);
+                if (next.isBefore(monthStart)) {
+                    rawHistory(powerStationId, next, monthStart.minusNanos(1), action);
+                }
+                OffsetDateTime retiredFrom = next.isAfter(monthStart) ? next : monthStart;
+                OffsetDateTime retiredTo = to.isBefore(monthEnd) ? to : monthEnd.minusNanos(1);
+                powerflowRollupRepository.forEachBucket(powerStationId, RollupTier.QUARTER_HOUR, retiredFrom, retiredTo,
+                        (means, minima, maxima) -> action.accept(means));
+                next = monthEnd;
+            }
+            if (!next.isAfter(to)) {
+                rawHistory(powerStationId, next, to, action);
+            }
+        });
+    }
 
-        var history = powerflowSnapshotRepository
-                .findByPowerStationAndPowerflowTimestampBetweenOrderByPowerflowTimestampAsc(station, from, to)
-                .stream()
-                .map(snap -> new HistoryResponseDto(
-                        snap.getPowerflowTimestamp(),
-                        snap.getPvW(),
-                        snap.getBatteryW(),
-                        snap.getLoadW(),
-                        snap.getGridW(),
-                        snap.getSocPercent()
-                )).toList();
+    private void rawHistory(Long powerStationId,
+                            OffsetDateTime from,
+                            OffsetDateTime to,
+                            Consumer<PowerflowSeries> action) {
+        powerflowReadRepository.forEachChunk(powerStationId, from, to, new PowerflowSeries(HISTORY_CHUNK_SIZE), action);
+    }
 
-        return history;
+    private static YearMonth month(OffsetDateTime time) {
+        return YearMonth.from(time.atZoneSameInstant(ZoneOffset.UTC));
     }
 }
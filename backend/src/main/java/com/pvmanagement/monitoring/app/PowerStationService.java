@@ -1,31 +1,43 @@
 package com.pvmanagement.monitoring.app;
 
+import com.pvmanagement.CacheConfig;
 import com.pvmanagement.monitoring.domain.PowerStation;
 import com.pvmanagement.monitoring.domain.CurrentMeasurementsDto;
 import com.pvmanagement.monitoring.domain.DashboardSummaryDto;
-import com.pvmanagement.monitoring.domain.HistoryResponseDto;
 import com.pvmanagement.monitoring.domain.PowerStationDto;
+import com.pvmanagement.monitoring.domain.PowerflowReading;
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
 import com.pvmanagement.monitoring.infra.PowerStationRepository;
-import com.pvmanagement.monitoring.infra.PowerflowSnapshotRepository;
+import com.pvmanagement.monitoring.infra.PowerflowReadRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @Transactional(readOnly = true)
 public class PowerStationService {
 
     private final PowerStationRepository powerStationRepository;
-    private final PowerflowSnapshotRepository powerflowSnapshotRepository;
+    private final PowerflowReadRepository powerflowReadRepository;
+    private final MeasurementService measurementService;
+    private final RecentSnapshotBuffer recentSnapshotBuffer;
 
-    public PowerStationService(PowerStationRepository powerStationRepository, PowerflowSnapshotRepository powerflowSnapshotRepository) {
+    public PowerStationService(PowerStationRepository powerStationRepository,
+                               PowerflowReadRepository powerflowReadRepository,
+                               MeasurementService measurementService,
+                               RecentSnapshotBuffer recentSnapshotBuffer) {
         this.powerStationRepository = powerStationRepository;
-        this.powerflowSnapshotRepository = powerflowSnapshotRepository;
+        this.powerflowReadRepository = powerflowReadRepository;
+        this.measurementService = measurementService;
+        this.recentSnapshotBuffer = recentSnapshotBuffer;
     }
 
+    @Cacheable(cacheNames = CacheConfig.POWER_STATIONS, key = "#id")
     public PowerStationDto getPowerStation(Long id) {
         var station = powerStationRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Power station not found"));
@@ -39,10 +51,24 @@ public class PowerStationService {
                 .toList();
     }
 
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD_SUMMARIES, key = "#powerStationId")
     public DashboardSummaryDto buildDashboard(Long powerStationId) {
         var station = powerStationRepository.findById(powerStationId)
                 .orElseThrow(() -> new IllegalArgumentException("Power station not found"));
-        var snapshot = powerflowSnapshotRepository.findFirstByPowerStationOrderByPowerflowTimestampDesc(station);
+        CurrentMeasurementsDto current = recentSnapshotBuffer.latest(powerStationId)
+                .or(() -> powerflowReadRepository.findLatest(powerStationId))
+                .map(PowerflowReading::toCurrentMeasurements)
+                .orElse(null);
+
+        return new DashboardSummaryDto(toDto(station),
+                current);
+    }
+
+    /**
+     * Streams the complete history shown next to the dashboard summary, optionally reduced to
+     * {@code maxPoints} spread over the station's recorded range.
+     */
+    public void dashboardHistory(Long powerStationId, Integer maxPoints, Consumer<PowerflowSeries> action) {
         OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC);
         OffsetDateTime from = OffsetDateTime.of(1970,
                 1,
@@ -52,31 +78,13 @@ public class PowerStationService {
                 0,
                 0,
                 ZoneOffset.UTC);
-        var history =
-                powerflowSnapshotRepository.findByPowerStationAndPowerflowTimestampBetweenOrderByPowerflowTimestampAsc(station,
-                        from,
-                        to);
-
-        CurrentMeasurementsDto current = snapshot.map(snap -> new CurrentMeasurementsDto(snap.getPowerflowTimestamp(),
-                        snap.getPvW(),
-                        snap.getBatteryW(),
-                        snap.getLoadW(),
-                        snap.getGridW(),
-                        snap.getSocPercent()))
-                .orElse(null);
-
-        List<HistoryResponseDto> historyResponse = history.stream()
-                .map(point -> new HistoryResponseDto(point.getPowerflowTimestamp(),
-                        point.getPvW(),
-                        point.getBatteryW(),
-                        point.getLoadW(),
-                        point.getGridW(),
-                        point.getSocPercent()))
-                .toList();
-
-        return new DashboardSummaryDto(toDto(station),
-                current,
-                historyResponse);
+        if (maxPoints != null) {
+            if (!powerStationRepository.existsById(powerStationId)) {
+                throw new IllegalArgumentException("Power station not found");
+            }
+            from = powerflowReadRepository.findFirstTimestamp(powerStationId).orElse(to);
+        }
+        measurementService.history(powerStationId, from, to, maxPoints, action);
     }
 
     private Double toDouble(Number value) {
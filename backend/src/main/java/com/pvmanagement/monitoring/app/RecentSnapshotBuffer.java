@@ -0,0 +1,209 @@
+package com.pvmanagement.monitoring.app;
+
+import com.pvmanagement.monitoring.domain.PowerflowReading;
+import com.pvmanagement.monitoring.domain.PowerflowRing;
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import com.pvmanagement.monitoring.infra.PowerStationRepository;
+import com.pvmanagement.monitoring.infra.PowerflowReadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the last {@code app.recent-snapshots.retention} of snapshots of every station in memory, so current
+ * values and short history ranges are answered without a query. Ingestion warms it from the database before it
+ * starts and appends every snapshot it commits; until then, and for ranges reaching further back than a ring
+ * covers, callers fall back to the database.
+ */
+@Component
+public class RecentSnapshotBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(RecentSnapshotBuffer.class);
+    private static final int CHUNK_SIZE = 500;
+
+    private final PowerStationRepository powerStationRepository;
+    private final PowerflowReadRepository powerflowReadRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int capacity;
+    private final Map<Long, PowerflowRing> rings = new ConcurrentHashMap<>();
+    private volatile boolean warmed;
+
+    public RecentSnapshotBuffer(PowerStationRepository powerStationRepository,
+                                PowerflowReadRepository powerflowReadRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.recent-snapshots.enabled:true}") boolean enabled,
+                                @Value("${app.recent-snapshots.retention:P2D}") Duration retention,
+                                @Value("${app.recent-snapshots.capacity:2048}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("app.recent-snapshots.capacity must be positive");
+        }
+        this.powerStationRepository = powerStationRepository;
+        this.powerflowReadRepository = powerflowReadRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.retention = retention;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Loads the retained window of every station. Snapshots appended meanwhile are merged into the loaded rings,
+     * so ingestion may already be running.
+     */
+    public void warm() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime from = now.minus(retention);
+        // open-ended, snapshots may carry timestamps slightly ahead of this clock
+        OffsetDateTime to = now.plusDays(1);
+        Set<Long> stationIds = new LinkedHashSet<>();
+        powerStationRepository.findAll().forEach(station -> stationIds.add(station.getId()));
+        // stations first ingested while the list above was read
+        stationIds.addAll(rings.keySet());
+
+        var chunk = new PowerflowSeries(CHUNK_SIZE);
+        for (Long stationId : stationIds) {
+            var loaded = new PowerflowRing(capacity, ceilEpochSecond(from));
+            readOnlyTransaction.executeWithoutResult(status ->
+                    powerflowReadRepository.forEachChunk(stationId, from, to, chunk, loaded::insertAll));
+            rings.compute(stationId, (id, appended) -> {
+                if (appended != null) {
+                    synchronized (appended) {
+                        loaded.insertAll(appended);
+                    }
+                }
+                return loaded;
+            });
+        }
+        warmed = true;
+        log.info("Warmed recent snapshots of {} stations in {} ms",
+                stationIds.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    /**
+     * Adds snapshots that have just been committed for the station.
+     */
+    public void append(Long powerStationId, List<PowerflowSnapshot> snapshots) {
+        if (!enabled || snapshots.isEmpty()) {
+            return;
+        }
+        // compute keeps an append from slipping past warm() replacing the ring
+        rings.compute(powerStationId, (id, ring) -> {
+            if (ring == null) {
+                // a station unknown to warm() has no earlier rows, so the ring is complete from its first sample
+                ring = new PowerflowRing(capacity, epochSecond(snapshots.get(0)));
+            }
+            synchronized (ring) {
+                for (PowerflowSnapshot snapshot : snapshots) {
+                    ring.insert(epochSecond(snapshot),
+                            real(snapshot.getPvW()),
+                            real(snapshot.getBatteryW()),
+                            real(snapshot.getLoadW()),
+                            real(snapshot.getGridW()),
+                            real(snapshot.getSocPercent()));
+                }
+            }
+            return ring;
+        });
+    }
+
+    /**
+     * The station's newest snapshot, if the buffer holds any for it.
+     */
+    public Optional<PowerflowReading> latest(Long powerStationId) {
+        PowerflowRing ring = ring(powerStationId);
+        if (ring == null) {
+            return Optional.empty();
+        }
+        synchronized (ring) {
+            return Optional.ofNullable(ring.latest());
+        }
+    }
+
+    /**
+     * Whether every snapshot of the station from {@code from} on is held here.
+     */
+    public boolean covers(Long powerStationId, OffsetDateTime from) {
+        PowerflowRing ring = ring(powerStationId);
+        if (ring == null) {
+            return false;
+        }
+        synchronized (ring) {
+            return ring.coveredFrom() <= ceilEpochSecond(from);
+        }
+    }
+
+    /**
+     * Hands the station's snapshots in the range to {@code action} in timestamp order, like
+     * {@link MeasurementService#history(Long, OffsetDateTime, OffsetDateTime, Consumer)}, if the buffer covers
+     * the range. Samples are copied out chunk by chunk, so the ring is never locked while {@code action} runs.
+     *
+     * @return {@code false}, without calling {@code action}, if the range is not covered
+     */
+    public boolean history(Long powerStationId,
+                           OffsetDateTime from,
+                           OffsetDateTime to,
+                           Consumer<PowerflowSeries> action) {
+        if (!covers(powerStationId, from)) {
+            return false;
+        }
+        PowerflowRing ring = ring(powerStationId);
+        var chunk = new PowerflowSeries(CHUNK_SIZE);
+        long next = ceilEpochSecond(from);
+        long last = to.toEpochSecond();
+        while (next <= last) {
+            chunk.clear();
+            synchronized (ring) {
+                ring.copy(next, last, chunk);
+            }
+            if (chunk.size() > 0) {
+                action.accept(chunk);
+            }
+            if (!chunk.isFull()) {
+                break;
+            }
+            next = chunk.epochSecond(chunk.size() - 1) + 1;
+        }
+        return true;
+    }
+
+    private PowerflowRing ring(Long powerStationId) {
+        return warmed ? rings.get(powerStationId) : null;
+    }
+
+    private static long epochSecond(PowerflowSnapshot snapshot) {
+        return snapshot.getPowerflowTimestamp().toEpochSecond();
+    }
+
+    private static long ceilEpochSecond(OffsetDateTime time) {
+        Instant instant = time.toInstant();
+        return instant.getNano() == 0 ? instant.getEpochSecond() : instant.getEpochSecond() + 1;
+    }
+
+    private static float real(BigDecimal value) {
+        return value == null ? Float.NaN : value.floatValue();
+    }
+}
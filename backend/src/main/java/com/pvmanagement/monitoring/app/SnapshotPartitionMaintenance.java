@@ -0,0 +1,145 @@
+package com.pvmanagement.monitoring.app;
+
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import com.pvmanagement.monitoring.infra.PowerflowPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps monthly {@code powerflow_snapshot} partitions created ahead of ingestion and, if enabled, retires raw
+ * partitions older than {@code app.snapshots.retention.months} once their rows are covered by the rollups.
+ * Retired partitions are detached (kept as standalone tables for archiving) or dropped, and their months are
+ * recorded so history for them is read from the rollups.
+ * <p>
+ * Ingestion also asks for the partitions of the months it is about to write, since replayed or late payloads
+ * may fall into months that were never created ahead of time.
+ */
+@Service
+@Profile("!collector")
+public class SnapshotPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotPartitionMaintenance.class);
+
+    private final PowerflowPartitionRepository partitionRepository;
+    private final int monthsAhead;
+    private final boolean retentionEnabled;
+    private final int retentionMonths;
+    private final boolean dropRetired;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock = Clock.system(ZoneOffset.UTC);
+    // months known to have an attached partition, and months known to be retired
+    private final Set<YearMonth> partitionedMonths = ConcurrentHashMap.newKeySet();
+    private final Set<YearMonth> retiredMonths = ConcurrentHashMap.newKeySet();
+
+    public SnapshotPartitionMaintenance(PowerflowPartitionRepository partitionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.snapshots.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${app.snapshots.retention.enabled:false}") boolean retentionEnabled,
+            @Value("${app.snapshots.retention.months:24}") int retentionMonths,
+            @Value("${app.snapshots.retention.mode:detach}") String retentionMode) {
+        if (!retentionMode.equals("detach") && !retentionMode.equals("drop")) {
+            throw new IllegalArgumentException("app.snapshots.retention.mode must be detach or drop");
+        }
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionEnabled = retentionEnabled;
+        this.retentionMonths = retentionMonths;
+        this.dropRetired = retentionMode.equals("drop");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.snapshots.partitions.cron:0 0 3 * * *}", zone = "UTC")
+    public void maintain() {
+        try {
+            createUpcomingPartitions();
+            if (retentionEnabled) {
+                retireOldPartitions();
+            }
+        } catch (Exception ex) {
+            log.warn("Snapshot partition maintenance failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Makes sure every month of the snapshots has a partition and returns the snapshots that can be inserted,
+     * leaving out those of retired months. Must be called outside the inserting transaction: creating a
+     * partition locks the parent table, and a partition created inside a transaction that rolls back would
+     * still be remembered here.
+     */
+    public List<PowerflowSnapshot> storable(List<PowerflowSnapshot> snapshots) {
+        List<PowerflowSnapshot> storable = new ArrayList<>(snapshots.size());
+        for (PowerflowSnapshot snapshot : snapshots) {
+            YearMonth month = YearMonth.from(snapshot.getPowerflowTimestamp().atZoneSameInstant(ZoneOffset.UTC));
+            if (ensurePartition(month)) {
+                storable.add(snapshot);
+            }
+        }
+        if (storable.size() < snapshots.size()) {
+            log.warn("Skipped {} snapshots of retired powerflow_snapshot months", snapshots.size() - storable.size());
+        }
+        return storable;
+    }
+
+    private boolean ensurePartition(YearMonth month) {
+        if (partitionedMonths.contains(month)) {
+            return true;
+        }
+        if (retiredMonths.contains(month)) {
+            return false;
+        }
+        if (partitionRepository.createPartition(month)) {
+            partitionedMonths.add(month);
+            return true;
+        }
+        retiredMonths.add(month);
+        return false;
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            ensurePartition(current.plusMonths(i));
+        }
+    }
+
+    private void retireOldPartitions() {
+        YearMonth oldestKept = YearMonth.now(clock).minusMonths(retentionMonths);
+        for (YearMonth month : partitionRepository.findPartitionMonths()) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            if (!partitionRepository.isRolledUp(month)) {
+                log.warn("Keeping powerflow_snapshot partition {}: rollups do not cover all of its rows", month);
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                partitionRepository.markRetired(month);
+                if (dropRetired) {
+                    partitionRepository.dropPartition(month);
+                } else {
+                    partitionRepository.detachPartition(month);
+                }
+            });
+            partitionedMonths.remove(month);
+            retiredMonths.add(month);
+            log.info("{} powerflow_snapshot partition {}", dropRetired ? "Dropped" : "Detached", month);
+        }
+    }
+}
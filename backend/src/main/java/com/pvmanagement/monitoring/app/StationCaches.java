@@ -0,0 +1,44 @@
+package com.pvmanagement.monitoring.app;
+
+import com.pvmanagement.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drops the cached per-station read models once new data for a station has been committed, and counts a data
+ * version per station for caches keyed by it.
+ */
+@Component
+public class StationCaches {
+
+    private static final List<String> STATION_CACHES = List.of(CacheConfig.CURRENT_MEASUREMENTS,
+            CacheConfig.POWER_STATIONS,
+            CacheConfig.DASHBOARD_SUMMARIES);
+
+    private final CacheManager cacheManager;
+    private final Map<Long, Long> dataVersions = new ConcurrentHashMap<>();
+
+    public StationCaches(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public long dataVersion(Long powerStationId) {
+        return dataVersions.getOrDefault(powerStationId, 0L);
+    }
+
+    public void evict(Collection<Long> powerStationIds) {
+        powerStationIds.forEach(id -> dataVersions.merge(id, 1L, Long::sum));
+        for (String name : STATION_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                powerStationIds.forEach(cache::evict);
+            }
+        }
+    }
+}
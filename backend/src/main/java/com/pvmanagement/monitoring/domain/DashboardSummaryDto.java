@@ -1,10 +1,10 @@
 package com.pvmanagement.monitoring.domain;
 
-import java.util.List;
-
+/**
+ * Dashboard header; the history series is streamed next to it by the controller.
+ */
 public record DashboardSummaryDto(
         PowerStationDto powerStation,
-        CurrentMeasurementsDto currentMeasurements,
-        List<HistoryResponseDto> history
+        CurrentMeasurementsDto currentMeasurements
 ) {
 }
@@ -0,0 +1,19 @@
+package com.pvmanagement.monitoring.domain;
+
+/**
+ * Running sums (W) and sample counts per quarter-hour slot of the day for one power station.
+ */
+public record DiurnalProfile(double[] pvSums,
+                             long[] pvCounts,
+                             double[] loadSums,
+                             long[] loadCounts) {
+
+    public boolean isEmpty() {
+        for (int slot = 0; slot < pvCounts.length; slot++) {
+            if (pvCounts[slot] > 0 || loadCounts[slot] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,11 +1,17 @@
 package com.pvmanagement.monitoring.domain;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 import java.time.OffsetDateTime;
 
+/**
+ * @param maxPoints optional upper bound on the returned points; the series is reduced to each bucket's
+ *                  minima and maxima on the server when set
+ */
 public record HistoryRequestDto(
         @NotNull(message = "from is required") OffsetDateTime from,
-        @NotNull(message = "to is required") OffsetDateTime to
+        @NotNull(message = "to is required") OffsetDateTime to,
+        @Positive(message = "maxPoints must be positive") Integer maxPoints
 ) {
 }
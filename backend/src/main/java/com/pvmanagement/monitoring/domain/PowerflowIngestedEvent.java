@@ -0,0 +1,10 @@
+package com.pvmanagement.monitoring.domain;
+
+/**
+ * Published after ingestion has committed new snapshots for a station, carrying the newest of them.
+ */
+public record PowerflowIngestedEvent(
+        Long powerStationId,
+        CurrentMeasurementsDto latest
+) {
+}
@@ -0,0 +1,35 @@
+package com.pvmanagement.monitoring.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Read-only projection of one powerflow snapshot on primitives, for reads that need no managed entity.
+ * Missing values are {@code NaN}.
+ */
+public record PowerflowReading(long epochSecond,
+                               float pvW,
+                               float batteryW,
+                               float loadW,
+                               float gridW,
+                               float socPercent) {
+
+    public OffsetDateTime timestamp() {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+
+    public CurrentMeasurementsDto toCurrentMeasurements() {
+        return new CurrentMeasurementsDto(timestamp(),
+                decimal(pvW),
+                decimal(batteryW),
+                decimal(loadW),
+                decimal(gridW),
+                decimal(socPercent));
+    }
+
+    public static BigDecimal decimal(float value) {
+        return Float.isNaN(value) ? null : new BigDecimal(Float.toString(value));
+    }
+}
@@ -0,0 +1,154 @@
+package com.pvmanagement.monitoring.domain;
+
+/**
+ * Fixed-capacity ring of one station's most recent powerflow samples in timestamp order, one primitive array
+ * per column. Once full, every insert drops the oldest sample.
+ * <p>
+ * The ring tracks the epoch second from which it is complete: every stored sample at or after
+ * {@link #coveredFrom()} is present, so a range starting there can be answered from the ring alone. Samples
+ * older than that are ignored, and dropping the oldest sample moves the bound past it.
+ * <p>
+ * Not thread-safe; callers synchronise on the ring.
+ */
+public final class PowerflowRing {
+
+    private final long[] epochSeconds;
+    private final float[] pvW;
+    private final float[] batteryW;
+    private final float[] loadW;
+    private final float[] gridW;
+    private final float[] socPercent;
+    private int head;
+    private int size;
+    private long coveredFrom;
+
+    public PowerflowRing(int capacity, long coveredFrom) {
+        epochSeconds = new long[capacity];
+        pvW = new float[capacity];
+        batteryW = new float[capacity];
+        loadW = new float[capacity];
+        gridW = new float[capacity];
+        socPercent = new float[capacity];
+        this.coveredFrom = coveredFrom;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long coveredFrom() {
+        return coveredFrom;
+    }
+
+    /**
+     * Inserts the sample at its place in timestamp order. Appending after the newest sample is the common case
+     * and costs no shifting; a sample whose timestamp is already present is ignored.
+     */
+    public void insert(long epochSecond, float pv, float battery, float load, float grid, float soc) {
+        if (epochSecond < coveredFrom) {
+            return;
+        }
+        int position = lowerBound(epochSecond);
+        if (position < size && epochSeconds[slot(position)] == epochSecond) {
+            return;
+        }
+        if (size == epochSeconds.length) {
+            if (position == 0) {
+                // older than everything kept, and there is no room for it
+                coveredFrom = epochSecond + 1;
+                return;
+            }
+            coveredFrom = Math.max(coveredFrom, epochSeconds[head] + 1);
+            head = slot(1);
+            size--;
+            position--;
+        }
+        for (int i = size; i > position; i--) {
+            move(slot(i - 1), slot(i));
+        }
+        int target = slot(position);
+        epochSeconds[target] = epochSecond;
+        pvW[target] = pv;
+        batteryW[target] = battery;
+        loadW[target] = load;
+        gridW[target] = grid;
+        socPercent[target] = soc;
+        size++;
+    }
+
+    public void insertAll(PowerflowSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            insert(series.epochSecond(i),
+                    series.pvW(i),
+                    series.batteryW(i),
+                    series.loadW(i),
+                    series.gridW(i),
+                    series.socPercent(i));
+        }
+    }
+
+    /**
+     * Inserts every sample of {@code other}, e.g. to merge samples appended while this ring was being loaded.
+     */
+    public void insertAll(PowerflowRing other) {
+        for (int i = 0; i < other.size; i++) {
+            int s = other.slot(i);
+            insert(other.epochSeconds[s], other.pvW[s], other.batteryW[s], other.loadW[s], other.gridW[s],
+                    other.socPercent[s]);
+        }
+    }
+
+    public PowerflowReading latest() {
+        if (size == 0) {
+            return null;
+        }
+        int s = slot(size - 1);
+        return new PowerflowReading(epochSeconds[s], pvW[s], batteryW[s], loadW[s], gridW[s], socPercent[s]);
+    }
+
+    /**
+     * Copies the samples between the two epoch seconds, both inclusive, into {@code into} until it is full.
+     *
+     * @return the number of samples copied
+     */
+    public int copy(long fromEpochSecond, long toEpochSecond, PowerflowSeries into) {
+        int copied = 0;
+        for (int i = lowerBound(fromEpochSecond); i < size && !into.isFull(); i++) {
+            int s = slot(i);
+            if (epochSeconds[s] > toEpochSecond) {
+                break;
+            }
+            into.add(epochSeconds[s], pvW[s], batteryW[s], loadW[s], gridW[s], socPercent[s]);
+            copied++;
+        }
+        return copied;
+    }
+
+    private int lowerBound(long epochSecond) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochSeconds[slot(mid)] < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int slot(int index) {
+        int slot = head + index;
+        return slot < epochSeconds.length ? slot : slot - epochSeconds.length;
+    }
+
+    private void move(int from, int to) {
+        epochSeconds[to] = epochSeconds[from];
+        pvW[to] = pvW[from];
+        batteryW[to] = batteryW[from];
+        loadW[to] = loadW[from];
+        gridW[to] = gridW[from];
+        socPercent[to] = socPercent[from];
+    }
+}
@@ -0,0 +1,73 @@
+package com.pvmanagement.monitoring.domain;
+
+/**
+ * Fixed-capacity columnar buffer of powerflow samples: one primitive array per column, missing values as
+ * {@code NaN}. Range reads fill it chunk by chunk and reuse it, and the history pipeline hands these chunks on
+ * down to the JSON writer, so a long range never materialises one object per row. Consumers must not keep a
+ * chunk beyond the call that received it.
+ */
+public final class PowerflowSeries {
+
+    private final long[] epochSeconds;
+    private final float[] pvW;
+    private final float[] batteryW;
+    private final float[] loadW;
+    private final float[] gridW;
+    private final float[] socPercent;
+    private int size;
+
+    public PowerflowSeries(int capacity) {
+        epochSeconds = new long[capacity];
+        pvW = new float[capacity];
+        batteryW = new float[capacity];
+        loadW = new float[capacity];
+        gridW = new float[capacity];
+        socPercent = new float[capacity];
+    }
+
+    public void add(long epochSecond, float pv, float battery, float load, float grid, float soc) {
+        epochSeconds[size] = epochSecond;
+        pvW[size] = pv;
+        batteryW[size] = battery;
+        loadW[size] = load;
+        gridW[size] = grid;
+        socPercent[size] = soc;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == epochSeconds.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public long epochSecond(int index) {
+        return epochSeconds[index];
+    }
+
+    public float pvW(int index) {
+        return pvW[index];
+    }
+
+    public float batteryW(int index) {
+        return batteryW[index];
+    }
+
+    public float loadW(int index) {
+        return loadW[index];
+    }
+
+    public float gridW(int index) {
+        return gridW[index];
+    }
+
+    public float socPercent(int index) {
+        return socPercent[index];
+    }
+}
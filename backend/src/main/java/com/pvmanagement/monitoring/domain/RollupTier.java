@@ -0,0 +1,52 @@
+package com.pvmanagement.monitoring.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Pre-aggregated powerflow tiers, finest first. Buckets are aligned to the UTC epoch.
+ */
+public enum RollupTier {
+    QUARTER_HOUR("powerflow_rollup_15m", Duration.ofMinutes(15)),
+    HOUR("powerflow_rollup_1h", Duration.ofHours(1)),
+    DAY("powerflow_rollup_1d", Duration.ofDays(1));
+
+    private final String table;
+    private final Duration bucket;
+
+    RollupTier(String table, Duration bucket) {
+        this.table = table;
+        this.bucket = bucket;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public Duration bucket() {
+        return bucket;
+    }
+
+    public OffsetDateTime bucketStart(OffsetDateTime timestamp) {
+        long seconds = timestamp.toEpochSecond();
+        long start = seconds - Math.floorMod(seconds, bucket.getSeconds());
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(start), ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the coarsest tier whose buckets still fit {@code buckets} times into the range,
+     * or {@code null} when only raw snapshots are fine enough.
+     */
+    public static RollupTier coarsestFor(OffsetDateTime from, OffsetDateTime to, int buckets) {
+        Duration resolution = Duration.between(from, to).dividedBy(Math.max(1, buckets));
+        RollupTier selected = null;
+        for (RollupTier tier : values()) {
+            if (tier.bucket.compareTo(resolution) <= 0) {
+                selected = tier;
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,99 @@
+package com.pvmanagement.monitoring.infra;
+
+import com.pvmanagement.monitoring.domain.DiurnalProfile;
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import com.pvmanagement.timeSeriesStatistics.DiurnalSlots;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class DiurnalProfileRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    // the diurnal statistics are maintained here now, TssService only turns the sums into means
+    private final Timer readTimer;
+    private final Timer accumulateTimer;
+    private final DistributionSummary accumulateSize;
+
+    public DiurnalProfileRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTimer = meterRegistry.timer("analytics.compute", "operation", "tss.diurnal.read");
+        this.accumulateTimer = meterRegistry.timer("analytics.compute", "operation", "tss.diurnal");
+        this.accumulateSize = meterRegistry.summary("analytics.input.size", "operation", "tss.diurnal");
+    }
+
+    public DiurnalProfile findByPowerStationId(Long powerStationId) {
+        return readTimer.record(() -> read(powerStationId));
+    }
+
+    /**
+     * Adds the pv/load values of newly persisted snapshots of one station. Samples are summed per
+     * slot first, so a chunk touches each of the 96 rows at most once.
+     */
+    public void accumulate(Long powerStationId, List<PowerflowSnapshot> snapshots) {
+        accumulateSize.record(snapshots.size());
+        accumulateTimer.record(() -> add(powerStationId, snapshots));
+    }
+
+    private DiurnalProfile read(Long powerStationId) {
+        int slots = DiurnalSlots.SLOTS_PER_DAY;
+        var profile = new DiurnalProfile(new double[slots], new long[slots], new double[slots], new long[slots]);
+        jdbcTemplate.query(
+                "SELECT slot, pv_sum, pv_count, load_sum, load_count FROM diurnal_profile WHERE powerstation_id = ?",
+                rs -> {
+                    int slot = rs.getInt("slot");
+                    profile.pvSums()[slot] = rs.getDouble("pv_sum");
+                    profile.pvCounts()[slot] = rs.getLong("pv_count");
+                    profile.loadSums()[slot] = rs.getDouble("load_sum");
+                    profile.loadCounts()[slot] = rs.getLong("load_count");
+                },
+                powerStationId
+        );
+        return profile;
+    }
+
+    private void add(Long powerStationId, List<PowerflowSnapshot> snapshots) {
+        int slots = DiurnalSlots.SLOTS_PER_DAY;
+        var delta = new DiurnalProfile(new double[slots], new long[slots], new double[slots], new long[slots]);
+        for (PowerflowSnapshot snapshot : snapshots) {
+            int slot = DiurnalSlots.slotOf(snapshot.getPowerflowTimestamp());
+            if (snapshot.getPvW() != null) {
+                delta.pvSums()[slot] += snapshot.getPvW().doubleValue();
+                delta.pvCounts()[slot]++;
+            }
+            if (snapshot.getLoadW() != null) {
+                delta.loadSums()[slot] += snapshot.getLoadW().doubleValue();
+                delta.loadCounts()[slot]++;
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) {
+            if (delta.pvCounts()[slot] > 0 || delta.loadCounts()[slot] > 0) {
+                rows.add(new Object[]{powerStationId, slot, delta.pvSums()[slot], delta.pvCounts()[slot],
+                        delta.loadSums()[slot], delta.loadCounts()[slot]});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                """
+                INSERT INTO diurnal_profile (powerstation_id, slot, pv_sum, pv_count, load_sum, load_count)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON CONFLICT (powerstation_id, slot) DO UPDATE SET
+                    pv_sum = diurnal_profile.pv_sum + EXCLUDED.pv_sum,
+                    pv_count = diurnal_profile.pv_count + EXCLUDED.pv_count,
+                    load_sum = diurnal_profile.load_sum + EXCLUDED.load_sum,
+                    load_count = diurnal_profile.load_count + EXCLUDED.load_count
+                """,
+                rows
+        );
+    }
+}
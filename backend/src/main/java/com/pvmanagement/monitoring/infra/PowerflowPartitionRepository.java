@@ -0,0 +1,114 @@
+package com.pvmanagement.monitoring.infra;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages the monthly partitions of {@code powerflow_snapshot} (see V5 migration).
+ */
+@Repository
+public class PowerflowPartitionRepository {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("powerflow_snapshot_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PowerflowPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the month's partition unless it exists.
+     *
+     * @return {@code false} if the month is retired and takes no raw rows any more
+     */
+    public boolean createPartition(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT create_powerflow_snapshot_partition(?)", String.class,
+                month.atDay(1)) != null;
+    }
+
+    /**
+     * Records the month as retired; must commit together with detaching or dropping its partition.
+     */
+    public void markRetired(YearMonth month) {
+        jdbcTemplate.update("INSERT INTO powerflow_snapshot_retired_month (month) VALUES (?) ON CONFLICT DO NOTHING",
+                month.atDay(1));
+    }
+
+    /**
+     * @return the retired months between the two, both inclusive, oldest first
+     */
+    public List<YearMonth> findRetiredMonths(YearMonth from, YearMonth to) {
+        return jdbcTemplate.query("""
+                        SELECT month FROM powerflow_snapshot_retired_month
+                        WHERE month >= ? AND month <= ?
+                        ORDER BY month
+                        """,
+                (rs, rowNum) -> YearMonth.from(rs.getDate(1).toLocalDate()),
+                from.atDay(1),
+                to.atDay(1));
+    }
+
+    /**
+     * @return the months that currently have an attached partition, oldest first
+     */
+    public List<YearMonth> findPartitionMonths() {
+        List<String> names = jdbcTemplate.queryForList("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'powerflow_snapshot'::regclass
+                        ORDER BY c.relname
+                        """,
+                String.class);
+        List<YearMonth> months = new ArrayList<>(names.size());
+        for (String name : names) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    /**
+     * True if every raw snapshot of the month is accounted for in the 15-minute rollups, which are what
+     * history and analytics fall back to once the raw rows are gone.
+     */
+    public boolean isRolledUp(YearMonth month) {
+        Timestamp from = Timestamp.from(month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp to = Timestamp.from(month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        Boolean covered = jdbcTemplate.queryForObject("""
+                        SELECT (SELECT COUNT(*) FROM powerflow_snapshot
+                                WHERE powerflow_timestamp >= ? AND powerflow_timestamp < ?)
+                             = (SELECT COALESCE(SUM(sample_count), 0) FROM powerflow_rollup_15m
+                                WHERE bucket_start >= ? AND bucket_start < ?)
+                        """,
+                Boolean.class,
+                from, to, from, to);
+        return Boolean.TRUE.equals(covered);
+    }
+
+    /**
+     * Detaches the month's partition, leaving it as a standalone table for archiving.
+     */
+    public void detachPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE powerflow_snapshot DETACH PARTITION " + partitionName(month));
+    }
+
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE " + partitionName(month));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "powerflow_snapshot_%04d_%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+}
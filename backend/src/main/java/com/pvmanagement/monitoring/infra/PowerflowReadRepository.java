@@ -0,0 +1,123 @@
+package com.pvmanagement.monitoring.infra;
+
+import com.pvmanagement.monitoring.domain.PowerflowReading;
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read side of {@code powerflow_snapshot}: selects only the columns a view needs and maps them straight onto
+ * primitive projections instead of hydrating managed entities.
+ */
+@Repository
+public class PowerflowReadRepository {
+
+    private static final RowMapper<PowerflowReading> READING_MAPPER = (rs, rowNum) -> new PowerflowReading(
+            rs.getLong("epoch_second"),
+            real(rs, "pv_w"),
+            real(rs, "battery_w"),
+            real(rs, "load_w"),
+            real(rs, "grid_w"),
+            real(rs, "soc_percent"));
+
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PowerflowReadRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Fills {@code buffer} with the station's samples in the range in timestamp order and hands it to
+     * {@code action} whenever it is full and once more for the remainder; the buffer is cleared and reused in
+     * between, so callers must not keep it. Must run inside a transaction for the fetch size to take effect.
+     */
+    public void forEachChunk(Long powerStationId,
+                             OffsetDateTime from,
+                             OffsetDateTime to,
+                             PowerflowSeries buffer,
+                             Consumer<PowerflowSeries> action) {
+        buffer.clear();
+        // seconds are floored like OffsetDateTime.toEpochSecond(), so a row read here matches the appended one
+        jdbcTemplate.query(con -> {
+                    var ps = con.prepareStatement("""
+                            SELECT FLOOR(EXTRACT(EPOCH FROM powerflow_timestamp))::BIGINT AS epoch_second,
+                                   pv_w, battery_w, load_w, grid_w, soc_percent
+                            FROM powerflow_snapshot
+                            WHERE powerstation_id = ? AND powerflow_timestamp >= ? AND powerflow_timestamp <= ?
+                            ORDER BY powerflow_timestamp ASC
+                            """);
+                    ps.setFetchSize(FETCH_SIZE);
+                    ps.setLong(1, powerStationId);
+                    ps.setTimestamp(2, Timestamp.from(from.toInstant()));
+                    ps.setTimestamp(3, Timestamp.from(to.toInstant()));
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> {
+                    buffer.add(rs.getLong(1),
+                            real(rs, 2),
+                            real(rs, 3),
+                            real(rs, 4),
+                            real(rs, 5),
+                            real(rs, 6));
+                    if (buffer.isFull()) {
+                        action.accept(buffer);
+                        buffer.clear();
+                    }
+                });
+        if (buffer.size() > 0) {
+            action.accept(buffer);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * The station's oldest sample, including months that are only left in the rollups.
+     */
+    public Optional<OffsetDateTime> findFirstTimestamp(Long powerStationId) {
+        return jdbcTemplate.query(
+                """
+                SELECT LEAST((SELECT MIN(powerflow_timestamp) FROM powerflow_snapshot WHERE powerstation_id = ?),
+                             (SELECT MIN(bucket_start) FROM powerflow_rollup_15m WHERE powerstation_id = ?))
+                """,
+                (rs, rowNum) -> rs.getObject(1, OffsetDateTime.class),
+                powerStationId,
+                powerStationId
+        ).stream().filter(Objects::nonNull).findFirst();
+    }
+
+    public Optional<PowerflowReading> findLatest(Long powerStationId) {
+        return jdbcTemplate.query("""
+                        SELECT FLOOR(EXTRACT(EPOCH FROM powerflow_timestamp))::BIGINT AS epoch_second,
+                               pv_w, battery_w, load_w, grid_w, soc_percent
+                        FROM powerflow_snapshot
+                        WHERE powerstation_id = ?
+                        ORDER BY powerflow_timestamp DESC
+                        LIMIT 1
+                        """,
+                READING_MAPPER,
+                powerStationId
+        ).stream().findFirst();
+    }
+
+    private static float real(ResultSet rs, String column) throws SQLException {
+        float value = rs.getFloat(column);
+        return rs.wasNull() ? Float.NaN : value;
+    }
+
+    private static float real(ResultSet rs, int column) throws SQLException {
+        float value = rs.getFloat(column);
+        return rs.wasNull() ? Float.NaN : value;
+    }
+}
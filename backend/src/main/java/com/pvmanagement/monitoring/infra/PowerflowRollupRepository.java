@@ -0,0 +1,323 @@
+package com.pvmanagement.monitoring.infra;
+
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import com.pvmanagement.monitoring.domain.RollupTier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class PowerflowRollupRepository {
+
+    private static final List<String> POWER_CHANNELS = List.of("pv", "load", "grid", "battery");
+    private static final long MAX_SAMPLE_GAP_SECONDS = Duration.ofMinutes(15).getSeconds();
+    private static final int FETCH_SIZE = 500;
+    private static final Map<RollupTier, String> UPSERT_SQL = new EnumMap<>(RollupTier.class);
+    private static final Map<RollupTier, String> REBUILD_SQL = new EnumMap<>(RollupTier.class);
+
+    static {
+        for (RollupTier tier : RollupTier.values()) {
+            UPSERT_SQL.put(tier, buildUpsertSql(tier));
+            REBUILD_SQL.put(tier, buildRebuildSql(tier));
+        }
+    }
+
+    /**
+     * Receives rollup buckets chunk by chunk: per bucket the channel means and extremes, in three series
+     * sharing their timestamps. The state of charge has no stored extremes, its mean stands in for them.
+     */
+    @FunctionalInterface
+    public interface BucketAction {
+        void accept(PowerflowSeries means, PowerflowSeries minima, PowerflowSeries maxima);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PowerflowRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds newly persisted snapshots of one station, sorted by timestamp, to every tier. Energy is
+     * integrated over the gap to the previous snapshot, capped so that downtime is not attributed to
+     * a single sample. Samples are merged per bucket first, so each tier gets one batched upsert.
+     * <p>
+     * Snapshots backfilled between stored ones also shorten the gap of the stored snapshot following them,
+     * which an increment cannot correct; the buckets they touch are rebuilt from the raw rows instead.
+     */
+    public void accumulate(Long powerStationId, List<PowerflowSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        OffsetDateTime first = snapshots.get(0).getPowerflowTimestamp();
+        OffsetDateTime last = snapshots.get(snapshots.size() - 1).getPowerflowTimestamp();
+        if (countStoredFrom(powerStationId, first, snapshots.size() + 1) > snapshots.size()) {
+            OffsetDateTime next = findNextTimestamp(powerStationId, last);
+            rebuild(powerStationId, first, next != null ? next : last);
+            return;
+        }
+        double[] hours = new double[snapshots.size()];
+        OffsetDateTime previous = findPreviousTimestamp(powerStationId, first);
+        for (int i = 0; i < snapshots.size(); i++) {
+            OffsetDateTime timestamp = snapshots.get(i).getPowerflowTimestamp();
+            if (previous != null) {
+                long seconds = Duration.between(previous, timestamp).getSeconds();
+                hours[i] = Math.min(seconds, MAX_SAMPLE_GAP_SECONDS) / 3600.0;
+            }
+            previous = timestamp;
+        }
+
+        for (RollupTier tier : RollupTier.values()) {
+            Map<OffsetDateTime, BucketDelta> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < snapshots.size(); i++) {
+                PowerflowSnapshot snapshot = snapshots.get(i);
+                buckets.computeIfAbsent(tier.bucketStart(snapshot.getPowerflowTimestamp()), start -> new BucketDelta())
+                        .add(snapshot, hours[i]);
+            }
+            List<Object[]> rows = new ArrayList<>(buckets.size());
+            buckets.forEach((start, delta) -> rows.add(delta.toArgs(powerStationId, start)));
+            jdbcTemplate.batchUpdate(UPSERT_SQL.get(tier), rows);
+        }
+    }
+
+    /**
+     * Hands every bucket of {@code tier} that starts within the range to {@code action} in time order,
+     * chunk by chunk in reused {@link PowerflowSeries}. Must run inside a transaction for the fetch size
+     * to take effect.
+     */
+    public void forEachBucket(Long powerStationId,
+                              RollupTier tier,
+                              OffsetDateTime from,
+                              OffsetDateTime to,
+                              BucketAction action) {
+        String sql = """
+                SELECT EXTRACT(EPOCH FROM bucket_start)::BIGINT AS bucket_epoch,
+                       pv_sum, pv_count, pv_min, pv_max, battery_sum, battery_count, battery_min, battery_max,
+                       load_sum, load_count, load_min, load_max, grid_sum, grid_count, grid_min, grid_max,
+                       soc_sum, soc_count
+                FROM %s
+                WHERE powerstation_id = ? AND bucket_start >= ? AND bucket_start <= ?
+                ORDER BY bucket_start ASC
+                """.formatted(tier.table());
+        var means = new PowerflowSeries(FETCH_SIZE);
+        var minima = new PowerflowSeries(FETCH_SIZE);
+        var maxima = new PowerflowSeries(FETCH_SIZE);
+        jdbcTemplate.query(con -> {
+                    var ps = con.prepareStatement(sql);
+                    ps.setFetchSize(FETCH_SIZE);
+                    ps.setLong(1, powerStationId);
+                    ps.setTimestamp(2, Timestamp.from(tier.bucketStart(from).toInstant()));
+                    ps.setTimestamp(3, Timestamp.from(to.toInstant()));
+                    return ps;
+                },
+                rs -> {
+                    long bucketEpoch = rs.getLong("bucket_epoch");
+                    float soc = mean(rs, "soc");
+                    means.add(bucketEpoch, mean(rs, "pv"), mean(rs, "battery"), mean(rs, "load"), mean(rs, "grid"), soc);
+                    minima.add(bucketEpoch, real(rs, "pv_min"), real(rs, "battery_min"), real(rs, "load_min"),
+                            real(rs, "grid_min"), soc);
+                    maxima.add(bucketEpoch, real(rs, "pv_max"), real(rs, "battery_max"), real(rs, "load_max"),
+                            real(rs, "grid_max"), soc);
+                    if (means.isFull()) {
+                        action.accept(means, minima, maxima);
+                        means.clear();
+                        minima.clear();
+                        maxima.clear();
+                    }
+                });
+        if (means.size() > 0) {
+            action.accept(means, minima, maxima);
+        }
+    }
+
+    /**
+     * Recomputes every bucket of every tier overlapping the range from the raw snapshots, replacing what
+     * was accumulated for them.
+     */
+    private void rebuild(Long powerStationId, OffsetDateTime from, OffsetDateTime to) {
+        for (RollupTier tier : RollupTier.values()) {
+            Timestamp start = Timestamp.from(tier.bucketStart(from).toInstant());
+            Timestamp end = Timestamp.from(tier.bucketStart(to).plus(tier.bucket()).toInstant());
+            jdbcTemplate.update(REBUILD_SQL.get(tier), powerStationId, end, powerStationId, start, start, start);
+        }
+    }
+
+    private long countStoredFrom(Long powerStationId, OffsetDateTime timestamp, int limit) {
+        Long count = jdbcTemplate.queryForObject(
+                """
+                SELECT COUNT(*) FROM (
+                    SELECT 1 FROM powerflow_snapshot
+                    WHERE powerstation_id = ? AND powerflow_timestamp >= ?
+                    ORDER BY powerflow_timestamp
+                    LIMIT ?
+                ) stored
+                """,
+                Long.class,
+                powerStationId,
+                Timestamp.from(timestamp.toInstant()),
+                limit);
+        return count != null ? count : 0;
+    }
+
+    private OffsetDateTime findNextTimestamp(Long powerStationId, OffsetDateTime timestamp) {
+        Timestamp next = jdbcTemplate.queryForObject(
+                """
+                SELECT MIN(powerflow_timestamp) FROM powerflow_snapshot
+                WHERE powerstation_id = ? AND powerflow_timestamp > ?
+                """,
+                Timestamp.class,
+                powerStationId,
+                Timestamp.from(timestamp.toInstant()));
+        return next != null ? OffsetDateTime.ofInstant(next.toInstant(), ZoneOffset.UTC) : null;
+    }
+
+    private OffsetDateTime findPreviousTimestamp(Long powerStationId, OffsetDateTime timestamp) {
+        Timestamp previous = jdbcTemplate.queryForObject(
+                """
+                SELECT MAX(powerflow_timestamp) FROM powerflow_snapshot
+                WHERE powerstation_id = ? AND powerflow_timestamp < ?
+                """,
+                Timestamp.class,
+                powerStationId,
+                Timestamp.from(timestamp.toInstant()));
+        return previous != null ? OffsetDateTime.ofInstant(previous.toInstant(), ZoneOffset.UTC) : null;
+    }
+
+    private static float mean(ResultSet rs, String channel) throws SQLException {
+        long count = rs.getLong(channel + "_count");
+        return count == 0 ? Float.NaN : (float) (rs.getDouble(channel + "_sum") / count);
+    }
+
+    private static float real(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? Float.NaN : (float) value;
+    }
+
+    private static String buildUpsertSql(RollupTier tier) {
+        var columns = new StringBuilder("powerstation_id, bucket_start, sample_count");
+        var values = new StringBuilder("?, ?, ?");
+        var updates = new StringBuilder("sample_count = r.sample_count + EXCLUDED.sample_count");
+        for (String c : POWER_CHANNELS) {
+            columns.append(", %1$s_sum, %1$s_count, %1$s_min, %1$s_max, %1$s_wh".formatted(c));
+            values.append(", ?, ?, ?, ?, ?");
+            updates.append("""
+                    , %1$s_sum = r.%1$s_sum + EXCLUDED.%1$s_sum\
+                    , %1$s_count = r.%1$s_count + EXCLUDED.%1$s_count\
+                    , %1$s_min = LEAST(r.%1$s_min, EXCLUDED.%1$s_min)\
+                    , %1$s_max = GREATEST(r.%1$s_max, EXCLUDED.%1$s_max)\
+                    , %1$s_wh = r.%1$s_wh + EXCLUDED.%1$s_wh""".formatted(c));
+        }
+        columns.append(", soc_sum, soc_count");
+        values.append(", ?, ?");
+        updates.append(", soc_sum = r.soc_sum + EXCLUDED.soc_sum, soc_count = r.soc_count + EXCLUDED.soc_count");
+        return "INSERT INTO %s AS r (%s) VALUES (%s) ON CONFLICT (powerstation_id, bucket_start) DO UPDATE SET %s"
+                .formatted(tier.table(), columns, values, updates);
+    }
+
+    // Same aggregate as V3 seeded the tiers with, over the raw rows of [start, end) plus the row before start
+    // for the first gap. Parameters: station, end, station, start, start, start.
+    private static String buildRebuildSql(RollupTier tier) {
+        var columns = new StringBuilder("powerstation_id, bucket_start, sample_count");
+        var aggregates = new StringBuilder("COUNT(*)");
+        var updates = new StringBuilder("sample_count = EXCLUDED.sample_count");
+        for (String c : POWER_CHANNELS) {
+            columns.append(", %1$s_sum, %1$s_count, %1$s_min, %1$s_max, %1$s_wh".formatted(c));
+            aggregates.append(", COALESCE(SUM(%1$s_w), 0), COUNT(%1$s_w), MIN(%1$s_w), MAX(%1$s_w)".formatted(c))
+                    .append(", COALESCE(SUM(%1$s_w * hours), 0)".formatted(c));
+            for (String suffix : List.of("sum", "count", "min", "max", "wh")) {
+                updates.append(", %1$s_%2$s = EXCLUDED.%1$s_%2$s".formatted(c, suffix));
+            }
+        }
+        columns.append(", soc_sum, soc_count");
+        aggregates.append(", COALESCE(SUM(soc_percent), 0), COUNT(soc_percent)");
+        updates.append(", soc_sum = EXCLUDED.soc_sum, soc_count = EXCLUDED.soc_count");
+        return """
+                INSERT INTO %1$s AS r (%2$s)
+                SELECT powerstation_id,
+                       date_bin('%3$d seconds', powerflow_timestamp, TIMESTAMPTZ '1970-01-01 00:00:00+00') AS bucket_start,
+                       %4$s
+                FROM (
+                    SELECT powerstation_id, powerflow_timestamp,
+                           pv_w::DOUBLE PRECISION AS pv_w, load_w::DOUBLE PRECISION AS load_w,
+                           grid_w::DOUBLE PRECISION AS grid_w, battery_w::DOUBLE PRECISION AS battery_w,
+                           soc_percent::DOUBLE PRECISION AS soc_percent,
+                           COALESCE(LEAST(EXTRACT(EPOCH FROM powerflow_timestamp - LAG(powerflow_timestamp)
+                                   OVER (ORDER BY powerflow_timestamp)), %6$d), 0)::DOUBLE PRECISION / 3600.0 AS hours
+                    FROM powerflow_snapshot
+                    WHERE powerstation_id = ? AND powerflow_timestamp < ?
+                      AND powerflow_timestamp >= COALESCE((SELECT MAX(powerflow_timestamp) FROM powerflow_snapshot
+                                                           WHERE powerstation_id = ? AND powerflow_timestamp < ?), ?)
+                ) samples
+                WHERE powerflow_timestamp >= ?
+                GROUP BY powerstation_id, bucket_start
+                ON CONFLICT (powerstation_id, bucket_start) DO UPDATE SET %5$s
+                """.formatted(tier.table(), columns, tier.bucket().getSeconds(), aggregates, updates,
+                MAX_SAMPLE_GAP_SECONDS);
+    }
+
+    // Aggregate of the samples falling into one bucket, in the column order of UPSERT_SQL
+    private static final class BucketDelta {
+        private long samples;
+        private final double[] sums = new double[POWER_CHANNELS.size()];
+        private final long[] counts = new long[POWER_CHANNELS.size()];
+        private final Double[] mins = new Double[POWER_CHANNELS.size()];
+        private final Double[] maxs = new Double[POWER_CHANNELS.size()];
+        private final double[] energies = new double[POWER_CHANNELS.size()];
+        private double socSum;
+        private long socCount;
+
+        void add(PowerflowSnapshot snapshot, double hours) {
+            samples++;
+            addPower(0, snapshot.getPvW(), hours);
+            addPower(1, snapshot.getLoadW(), hours);
+            addPower(2, snapshot.getGridW(), hours);
+            addPower(3, snapshot.getBatteryW(), hours);
+            if (snapshot.getSocPercent() != null) {
+                socSum += snapshot.getSocPercent().doubleValue();
+                socCount++;
+            }
+        }
+
+        private void addPower(int channel, BigDecimal value, double hours) {
+            if (value == null) {
+                return;
+            }
+            double v = value.doubleValue();
+            sums[channel] += v;
+            counts[channel]++;
+            mins[channel] = mins[channel] == null ? v : Math.min(mins[channel], v);
+            maxs[channel] = maxs[channel] == null ? v : Math.max(maxs[channel], v);
+            energies[channel] += v * hours;
+        }
+
+        Object[] toArgs(Long powerStationId, OffsetDateTime bucketStart) {
+            List<Object> args = new ArrayList<>(25);
+            args.add(powerStationId);
+            args.add(Timestamp.from(bucketStart.toInstant()));
+            args.add(samples);
+            for (int c = 0; c < POWER_CHANNELS.size(); c++) {
+                args.add(sums[c]);
+                args.add(counts[c]);
+                args.add(mins[c]);
+                args.add(maxs[c]);
+                args.add(energies[c]);
+            }
+            args.add(socSum);
+            args.add(socCount);
+            return args.toArray();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.pvmanagement.monitoring.infra;
+
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class PowerflowSnapshotBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PowerflowSnapshotBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the snapshots in one JDBC batch, skipping any whose (station, timestamp) already exists.
+     *
+     * @return the snapshots that were actually inserted, in input order
+     */
+    public List<PowerflowSnapshot> insertIgnoringDuplicates(List<PowerflowSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return List.of();
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                """
+                INSERT INTO powerflow_snapshot (powerstation_id, powerflow_timestamp, pv_w, pv_status, battery_w,
+                    battery_status, load_w, load_status, grid_w, grid_status, genset_w, microgrid_w, soc_percent)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT (powerstation_id, powerflow_timestamp) DO NOTHING
+                """,
+                snapshots,
+                snapshots.size(),
+                (ps, snapshot) -> {
+                    ps.setLong(1, snapshot.getPowerStation().getId());
+                    ps.setTimestamp(2, Timestamp.from(snapshot.getPowerflowTimestamp().toInstant()));
+                    setReal(ps, 3, snapshot.getPvW());
+                    setCode(ps, 4, snapshot.getPvStatus());
+                    setReal(ps, 5, snapshot.getBatteryW());
+                    setCode(ps, 6, snapshot.getBatteryStatus());
+                    setReal(ps, 7, snapshot.getLoadW());
+                    setCode(ps, 8, snapshot.getLoadStatus());
+                    setReal(ps, 9, snapshot.getGridW());
+                    setCode(ps, 10, snapshot.getGridStatus());
+                    setReal(ps, 11, snapshot.getGensetW());
+                    setReal(ps, 12, snapshot.getMicrogridW());
+                    setReal(ps, 13, snapshot.getSocPercent());
+                });
+
+        List<PowerflowSnapshot> inserted = new ArrayList<>(snapshots.size());
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count != 0) {
+                    inserted.add(snapshots.get(i));
+                }
+                i++;
+            }
+        }
+        return inserted;
+    }
+
+    private static void setReal(PreparedStatement ps, int index, BigDecimal value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.REAL);
+        } else {
+            ps.setFloat(index, value.floatValue());
+        }
+    }
+
+    private static void setCode(PreparedStatement ps, int index, Short code) throws SQLException {
+        if (code == null) {
+            ps.setNull(index, Types.SMALLINT);
+        } else {
+            ps.setShort(index, code);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.pvmanagement.monitoring.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pvmanagement.monitoring.domain.DashboardSummaryDto;
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Writes history series straight to the servlet output stream while they are read,
+ * instead of collecting them into a list for Jackson first. Points are written field by field from the
+ * {@link PowerflowSeries} chunks, so no object is built per point.
+ */
+@Component
+public class HistoryJsonWriter {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    @FunctionalInterface
+    public interface HistorySource {
+        void forEach(Consumer<PowerflowSeries> action);
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public HistoryJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeHistory(HttpServletResponse response, HistorySource history) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream());
+        // Nothing is flushed before the source yields its first point, so lookup errors still
+        // reach the exception handler as a regular JSON error response.
+        generator.writeStartArray();
+        writePoints(generator, history);
+        generator.writeEndArray();
+        generator.close();
+    }
+
+    public void writeDashboard(HttpServletResponse response,
+                               DashboardSummaryDto summary,
+                               HistorySource history) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream());
+        generator.writeStartObject();
+        generator.writeObjectField("powerStation", summary.powerStation());
+        generator.writeObjectField("currentMeasurements", summary.currentMeasurements());
+        generator.writeArrayFieldStart("history");
+        writePoints(generator, history);
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    private void writePoints(JsonGenerator generator, HistorySource history) throws IOException {
+        var points = new PointWriter(generator);
+        try {
+            history.forEach(chunk -> {
+                try {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        points.write(chunk, i);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Writes one response's points. Timestamps come out as ISO-8601 UTC seconds, like Jackson writes an
+     * {@code OffsetDateTime}, with the date part formatted once per day; channels as plain decimals rounded to
+     * three places, never in exponent notation, and missing values as {@code null}.
+     */
+    static final class PointWriter {
+
+        private final JsonGenerator generator;
+        private final char[] timestamp = "0000-00-00T00:00:00Z".toCharArray();
+        private final char[] number = new char[32];
+        private long day = Long.MIN_VALUE;
+
+        PointWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        void write(PowerflowSeries chunk, int index) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName("timestamp");
+            writeTimestamp(chunk.epochSecond(index));
+            writeChannel("pvW", chunk.pvW(index));
+            writeChannel("batteryW", chunk.batteryW(index));
+            writeChannel("loadW", chunk.loadW(index));
+            writeChannel("gridW", chunk.gridW(index));
+            writeChannel("socPercent", chunk.socPercent(index));
+            generator.writeEndObject();
+        }
+
+        private void writeTimestamp(long epochSecond) throws IOException {
+            long pointDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+            if (pointDay != day) {
+                LocalDate date = LocalDate.ofEpochDay(pointDay);
+                if (date.getYear() < 0 || date.getYear() > 9999) {
+                    // outside the fixed-width layout below, leave it to java.time
+                    generator.writeString(Instant.ofEpochSecond(epochSecond).toString());
+                    return;
+                }
+                digits(timestamp, 0, date.getYear(), 4);
+                digits(timestamp, 5, date.getMonthValue(), 2);
+                digits(timestamp, 8, date.getDayOfMonth(), 2);
+                day = pointDay;
+            }
+            int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+            digits(timestamp, 11, secondOfDay / 3600, 2);
+            digits(timestamp, 14, secondOfDay / 60 % 60, 2);
+            digits(timestamp, 17, secondOfDay % 60, 2);
+            generator.writeString(timestamp, 0, timestamp.length);
+        }
+
+        private void writeChannel(String name, float value) throws IOException {
+            generator.writeFieldName(name);
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                generator.writeNull();
+                return;
+            }
+            long thousandths = Math.round(value * 1000.0);
+            if (thousandths % 1000 == 0) {
+                generator.writeNumber(thousandths / 1000);
+                return;
+            }
+            int end = number.length;
+            long magnitude = Math.abs(thousandths);
+            int fraction = (int) (magnitude % 1000);
+            // trailing zeros of the fraction are dropped
+            int places = fraction % 100 == 0 ? 1 : fraction % 10 == 0 ? 2 : 3;
+            for (int i = 3; i > places; i--) {
+                fraction /= 10;
+            }
+            end -= places;
+            digits(number, end, fraction, places);
+            number[--end] = '.';
+            long whole = magnitude / 1000;
+            do {
+                number[--end] = (char) ('0' + whole % 10);
+                whole /= 10;
+            } while (whole > 0);
+            if (thousandths < 0) {
+                number[--end] = '-';
+            }
+            generator.writeNumber(number, end, number.length - end);
+        }
+
+        private static void digits(char[] into, int offset, int value, int width) {
+            for (int i = offset + width - 1; i >= offset; i--) {
+                into[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.pvmanagement.monitoring.web;
+
+import com.pvmanagement.monitoring.domain.CurrentMeasurementsDto;
+import com.pvmanagement.monitoring.domain.PowerflowIngestedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the newest measurements of a station to its SSE subscribers once ingestion has committed them.
+ * Each station has one feed, so an ingested page costs one event per station however many clients listen.
+ * <p>
+ * Sends run on a small dedicated pool, never on the ingestion or scheduler thread, so a slow client cannot stall
+ * either. Pushes are coalesced per station: while one is pending, newer readings replace the value it sends, so
+ * the pool's queue holds at most one task per station plus heartbeats.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Component
+public class LiveMeasurementsBroadcaster {
+
+    private static final String EVENT_NAME = "measurements";
+    private static final Logger log = LoggerFactory.getLogger(LiveMeasurementsBroadcaster.class);
+
+    private final Map<Long, StationFeed> feeds = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final ThreadPoolExecutor fanOut;
+
+    public LiveMeasurementsBroadcaster(@Value("${app.live.timeout:PT30M}") Duration timeout,
+                                       @Value("${app.live.fan-out-threads:2}") int fanOutThreads,
+                                       @Value("${app.live.fan-out-queue-capacity:1000}") int fanOutQueueCapacity) {
+        if (fanOutThreads <= 0 || fanOutQueueCapacity <= 0) {
+            throw new IllegalArgumentException("app.live.fan-out-threads and fan-out-queue-capacity must be positive");
+        }
+        this.timeout = timeout;
+        var threads = new AtomicInteger();
+        this.fanOut = new ThreadPoolExecutor(fanOutThreads,
+                fanOutThreads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fanOutQueueCapacity),
+                runnable -> {
+                    var thread = new Thread(runnable, "live-fan-out-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+    }
+
+    /**
+     * Registers a subscriber and sends it {@code initial} (or the last pushed value, if newer) straight away.
+     */
+    public SseEmitter subscribe(Long powerStationId, CurrentMeasurementsDto initial) {
+        var emitter = new SseEmitter(timeout.toMillis());
+        var feed = feeds.computeIfAbsent(powerStationId, id -> new StationFeed());
+        feed.emitters.add(emitter);
+        emitter.onCompletion(() -> feed.emitters.remove(emitter));
+        emitter.onTimeout(() -> feed.emitters.remove(emitter));
+        emitter.onError(ex -> feed.emitters.remove(emitter));
+
+        CurrentMeasurementsDto latest = newer(feed.latest, initial);
+        if (latest != null) {
+            send(feed, emitter, SseEmitter.event().name(EVENT_NAME).data(latest, MediaType.APPLICATION_JSON));
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onIngested(PowerflowIngestedEvent event) {
+        var feed = feeds.computeIfAbsent(event.powerStationId(), id -> new StationFeed());
+        synchronized (feed) {
+            // a backfill can commit older readings than the one already pushed
+            if (newer(feed.latest, event.latest()) != event.latest()) {
+                return;
+            }
+            feed.latest = event.latest();
+        }
+        if (feed.emitters.isEmpty()) {
+            return;
+        }
+        feed.dirty.set(true);
+        if (feed.scheduled.compareAndSet(false, true)) {
+            execute(() -> push(feed), () -> feed.scheduled.set(false));
+        }
+    }
+
+    // keeps idle connections open through proxies and weeds out clients that went away
+    @Scheduled(fixedDelayString = "${app.live.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        execute(() -> feeds.values().forEach(feed -> feed.emitters.forEach(emitter ->
+                send(feed, emitter, SseEmitter.event().comment("heartbeat")))), () -> { });
+    }
+
+    // one push per feed at a time, so a slower send can never overtake a newer value
+    private void push(StationFeed feed) {
+        do {
+            while (feed.dirty.getAndSet(false)) {
+                CurrentMeasurementsDto latest = feed.latest;
+                for (SseEmitter emitter : feed.emitters) {
+                    send(feed, emitter, SseEmitter.event().name(EVENT_NAME).data(latest, MediaType.APPLICATION_JSON));
+                }
+            }
+            feed.scheduled.set(false);
+        } while (feed.dirty.get() && feed.scheduled.compareAndSet(false, true));
+    }
+
+    private void execute(Runnable task, Runnable onRejected) {
+        try {
+            fanOut.execute(task);
+        } catch (RejectedExecutionException ex) {
+            log.warn("Live measurements fan-out queue is full, skipping a push");
+            onRejected.run();
+        }
+    }
+
+    private void send(StationFeed feed, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (Exception ex) {
+            log.debug("Dropping live measurements subscriber: {}", ex.getMessage());
+            feed.emitters.remove(emitter);
+            emitter.completeWithError(ex);
+        }
+    }
+
+    private static CurrentMeasurementsDto newer(CurrentMeasurementsDto current, CurrentMeasurementsDto candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        if (current == null || candidate.timestamp().isAfter(current.timestamp())) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private static final class StationFeed {
+        private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+        private volatile CurrentMeasurementsDto latest;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+}
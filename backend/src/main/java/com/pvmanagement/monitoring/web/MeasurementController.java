@@ -2,26 +2,34 @@ package com.pvmanagement.monitoring.web;
 
 import com.pvmanagement.monitoring.domain.CurrentMeasurementsDto;
 import com.pvmanagement.monitoring.domain.HistoryRequestDto;
-import com.pvmanagement.monitoring.domain.HistoryResponseDto;
 import com.pvmanagement.monitoring.app.MeasurementService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/measurements")
 public class MeasurementController {
 
     private final MeasurementService measurementService;
+    private final HistoryJsonWriter historyJsonWriter;
+    private final LiveMeasurementsBroadcaster liveMeasurementsBroadcaster;
 
-    public MeasurementController(MeasurementService measurementService) {
+    public MeasurementController(MeasurementService measurementService,
+                                 HistoryJsonWriter historyJsonWriter,
+                                 LiveMeasurementsBroadcaster liveMeasurementsBroadcaster) {
         this.measurementService = measurementService;
+        this.historyJsonWriter = historyJsonWriter;
+        this.liveMeasurementsBroadcaster = liveMeasurementsBroadcaster;
     }
 
     @GetMapping("/current/{powerStationId}")
@@ -29,9 +37,20 @@ public class MeasurementController {
         return measurementService.current(powerStationId);
     }
 
+    /**
+     * Server-sent {@code measurements} events with the station's current values, starting with the
+     * latest known reading and followed by one event per ingested update.
+     */
+    @GetMapping(path = "/live/{powerStationId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter live(@PathVariable Long powerStationId) {
+        return liveMeasurementsBroadcaster.subscribe(powerStationId, measurementService.current(powerStationId));
+    }
+
     @PostMapping("/history/{powerStationId}")
-    public List<HistoryResponseDto> history(@PathVariable Long powerStationId,
-                                            @Valid @RequestBody HistoryRequestDto request) {
-        return measurementService.history(powerStationId, request);
+    public void history(@PathVariable Long powerStationId,
+                        @Valid @RequestBody HistoryRequestDto request,
+                        HttpServletResponse response) throws IOException {
+        historyJsonWriter.writeHistory(response,
+                action -> measurementService.history(powerStationId, request, action));
     }
 }
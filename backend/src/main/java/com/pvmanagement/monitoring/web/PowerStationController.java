@@ -3,21 +3,29 @@ package com.pvmanagement.monitoring.web;
 import com.pvmanagement.monitoring.domain.DashboardSummaryDto;
 import com.pvmanagement.monitoring.domain.PowerStationDto;
 import com.pvmanagement.monitoring.app.PowerStationService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Positive;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
+@Validated
 @RequestMapping("/api/powerstations")
 public class PowerStationController {
 
     private final PowerStationService powerStationService;
+    private final HistoryJsonWriter historyJsonWriter;
 
-    public PowerStationController(PowerStationService powerStationService) {
+    public PowerStationController(PowerStationService powerStationService, HistoryJsonWriter historyJsonWriter) {
         this.powerStationService = powerStationService;
+        this.historyJsonWriter = historyJsonWriter;
     }
 
     @GetMapping
@@ -31,7 +39,13 @@ public class PowerStationController {
     }
 
     @GetMapping("/{id}/dashboard")
-    public DashboardSummaryDto dashboard(@PathVariable Long id) {
-        return powerStationService.buildDashboard(id);
+    public void dashboard(@PathVariable Long id,
+                          @RequestParam(required = false)
+                          @Positive(message = "maxPoints must be positive") Integer maxPoints,
+                          HttpServletResponse response) throws IOException {
+        DashboardSummaryDto summary = powerStationService.buildDashboard(id);
+        historyJsonWriter.writeDashboard(response,
+                summary,
+                action -> powerStationService.dashboardHistory(id, maxPoints, action));
     }
 }
@@ -5,15 +5,15 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/powerstations/")
 public class PsoController {
-    private final PsoService psoService;
+    private final PsoResultCache psoResultCache;
 
-    public PsoController(PsoService psoService) {
-        this.psoService = psoService;
+    public PsoController(PsoResultCache psoResultCache) {
+        this.psoResultCache = psoResultCache;
     }
 
     @PostMapping("/{id}/optimizations")
     public PsoResponse getOptimizations(@PathVariable Long id, @RequestBody PsoRequest request) {
-       return psoService.getPanelSizeOptimizationData(id, request);
+       return psoResultCache.getPanelSizeOptimizationData(id, request);
     }
 
 }
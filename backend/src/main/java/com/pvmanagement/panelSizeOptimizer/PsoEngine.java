@@ -0,0 +1,160 @@
+package com.pvmanagement.panelSizeOptimizer;
+
+import com.pvmanagement.timeSeriesStatistics.DiurnalSlots;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates panel-size scenarios on primitive diurnal profiles.
+ * <p>
+ * Profiles are {@code double[96]} arrays in kWh per 15-minute slot. For every capacity the
+ * production profile is scaled linearly from the current capacity and compared slot by slot
+ * against consumption, so fit, excess and lack are accumulated in one pass without allocation.
+ * Scenarios are independent, so large sweeps can be split across a fork-join pool.
+ */
+public final class PsoEngine {
+
+    /**
+     * Scenarios evaluated by one fork-join leaf; a scenario is only 96 multiply-adds, so smaller leaves would
+     * cost more in task overhead than they save.
+     */
+    static final int SCENARIOS_PER_TASK = 128;
+
+    private PsoEngine() {
+    }
+
+    public static PsoResult evaluate(double[] production,
+            double[] consumption,
+            double[] capacities,
+            double currentCapacity,
+            PsoFactors factors) {
+        return evaluate(production, consumption, capacities, currentCapacity, factors, null);
+    }
+
+    /**
+     * Like {@link #evaluate(double[], double[], double[], double, PsoFactors)}, but with sweeps larger than
+     * {@link #SCENARIOS_PER_TASK} split across {@code pool}. Smaller sweeps, or a {@code null} pool, run on the
+     * calling thread.
+     */
+    public static PsoResult evaluate(double[] production,
+            double[] consumption,
+            double[] capacities,
+            double currentCapacity,
+            PsoFactors factors,
+            ForkJoinPool pool) {
+        if (production.length != DiurnalSlots.SLOTS_PER_DAY || consumption.length != DiurnalSlots.SLOTS_PER_DAY) {
+            throw new IllegalArgumentException("Diurnal profiles must have " + DiurnalSlots.SLOTS_PER_DAY + " slots");
+        }
+
+        int n = capacities.length;
+        double[] fitAmounts = new double[n];
+        double[] excessAmounts = new double[n];
+        double[] lackAmounts = new double[n];
+        double[] totalAmounts = new double[n];
+
+        var task = new ScenarioTask(production, consumption, capacities, currentCapacity, factors, 0, n,
+                fitAmounts, excessAmounts, lackAmounts, totalAmounts);
+        if (pool == null || n <= SCENARIOS_PER_TASK) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+
+        return new PsoResult(capacities, fitAmounts, excessAmounts, lackAmounts, totalAmounts);
+    }
+
+    static void evaluateScenario(double[] production,
+            double[] consumption,
+            double scale,
+            PsoFactors factors,
+            int index,
+            double[] fitAmounts,
+            double[] excessAmounts,
+            double[] lackAmounts,
+            double[] totalAmounts) {
+        double fit = 0;
+        double excess = 0;
+        double lack = 0;
+        for (int slot = 0; slot < DiurnalSlots.SLOTS_PER_DAY; slot++) {
+            double p = production[slot] * scale;
+            double c = consumption[slot];
+            if (p >= c) {
+                fit += c;
+                excess += p - c;
+            } else {
+                fit += p;
+                lack += c - p;
+            }
+        }
+
+        double fitAmount = fit * factors.fit();
+        double excessAmount = excess * factors.excess();
+        double lackAmount = lack * factors.lack();
+        fitAmounts[index] = fitAmount;
+        excessAmounts[index] = excessAmount;
+        lackAmounts[index] = lackAmount;
+        totalAmounts[index] = fitAmount + excessAmount + lackAmount;
+    }
+
+    /**
+     * Evaluates the scenarios {@code [from, to)}, halving the range until it fits one leaf. Every scenario
+     * writes its own index of the result arrays, so the leaves share nothing.
+     */
+    private static final class ScenarioTask extends RecursiveAction {
+
+        private final double[] production;
+        private final double[] consumption;
+        private final double[] capacities;
+        private final double currentCapacity;
+        private final PsoFactors factors;
+        private final int from;
+        private final int to;
+        private final double[] fitAmounts;
+        private final double[] excessAmounts;
+        private final double[] lackAmounts;
+        private final double[] totalAmounts;
+
+        ScenarioTask(double[] production,
+                double[] consumption,
+                double[] capacities,
+                double currentCapacity,
+                PsoFactors factors,
+                int from,
+                int to,
+                double[] fitAmounts,
+                double[] excessAmounts,
+                double[] lackAmounts,
+                double[] totalAmounts) {
+            this.production = production;
+            this.consumption = consumption;
+            this.capacities = capacities;
+            this.currentCapacity = currentCapacity;
+            this.factors = factors;
+            this.from = from;
+            this.to = to;
+            this.fitAmounts = fitAmounts;
+            this.excessAmounts = excessAmounts;
+            this.lackAmounts = lackAmounts;
+            this.totalAmounts = totalAmounts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SCENARIOS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    evaluateScenario(production, consumption, capacities[i] / currentCapacity, factors, i,
+                            fitAmounts, excessAmounts, lackAmounts, totalAmounts);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(subtask(from, mid), subtask(mid, to));
+        }
+
+        private ScenarioTask subtask(int from, int to) {
+            return new ScenarioTask(production, consumption, capacities, currentCapacity, factors, from, to,
+                    fitAmounts, excessAmounts, lackAmounts, totalAmounts);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.pvmanagement.panelSizeOptimizer;
+
+/**
+ * Cost factors applied per kWh of self-consumed ({@code fit}), exported ({@code excess})
+ * and imported ({@code lack}) energy.
+ */
+public record PsoFactors(double fit,
+        double excess,
+        double lack) {
+}
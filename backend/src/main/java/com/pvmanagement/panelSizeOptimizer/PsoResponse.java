@@ -6,7 +6,7 @@ import lombok.Builder;
 import java.math.BigDecimal;
 import java.util.List;
 
-@Builder
+@Builder(toBuilder = true)
 public record PsoResponse(List<DayTimeValue> diurnalConsumptionProfile,
         List<List<DayTimeValue>> diurnalProductionProfiles,
         List<BigDecimal> pvCapacities,
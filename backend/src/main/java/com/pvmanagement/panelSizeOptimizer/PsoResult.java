@@ -0,0 +1,11 @@
+package com.pvmanagement.panelSizeOptimizer;
+
+/**
+ * Per-capacity amounts computed by {@link PsoEngine}, index-aligned with {@code capacities}.
+ */
+public record PsoResult(double[] capacities,
+        double[] fitAmounts,
+        double[] excessAmounts,
+        double[] lackAmounts,
+        double[] totalAmounts) {
+}
@@ -0,0 +1,95 @@
+package com.pvmanagement.panelSizeOptimizer;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pvmanagement.monitoring.app.StationCaches;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Memoises {@link PsoService} results per station, normalised request and station data version. Identical
+ * requests arriving while a result is computed wait on the same future instead of computing it again, and
+ * results stay valid until ingestion commits new snapshots for the station (see {@link StationCaches}). The
+ * cache is bounded by the capacity scenarios it holds, since a response grows with them: every scenario adds a
+ * 96-slot production profile.
+ */
+@Component
+public class PsoResultCache {
+
+    private final PsoService psoService;
+    private final StationCaches stationCaches;
+    private final AsyncCache<Key, PsoResponse> results;
+
+    public PsoResultCache(PsoService psoService,
+            StationCaches stationCaches,
+            @Value("${app.pso.cache.maximum-scenarios:50000}") long maximumScenarios,
+            @Value("${app.pso.cache.ttl:PT1H}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.psoService = psoService;
+        this.stationCaches = stationCaches;
+        this.results = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumWeight(maximumScenarios)
+                .weigher((Key key, PsoResponse response) -> response.pvCapacities().size())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync(), "psoResults");
+    }
+
+    public PsoResponse getPanelSizeOptimizationData(Long powerStationId, PsoRequest request) {
+        // performanceRatio is not part of the key, the optimisation does not use it
+        var key = new Key(powerStationId, stationCaches.dataVersion(powerStationId),
+                number(request.electricityCosts()),
+                number(request.electricitySellingPrice()),
+                number(request.currentCapacity()),
+                number(request.reininvesttime()),
+                number(request.panelcost()));
+
+        var computation = new CompletableFuture<PsoResponse>();
+        CompletableFuture<PsoResponse> shared = results.asMap().putIfAbsent(key, computation);
+        if (shared == null) {
+            // the first caller computes on its own thread; failed futures are dropped by the cache, and
+            // whatever is thrown must complete the future, or the callers waiting on it would hang
+            try {
+                computation.complete(psoService.getPanelSizeOptimizationData(powerStationId, request));
+            } catch (Throwable ex) {
+                computation.completeExceptionally(ex);
+                throw ex;
+            }
+            shared = computation;
+        }
+
+        PsoResponse response;
+        try {
+            response = shared.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        // echo the caller's own request, which may be spelled differently from the one that was computed
+        return response.request().equals(request) ? response : response.toBuilder().request(request).build();
+    }
+
+    private static Double number(String value) {
+        return value != null ? Double.valueOf(value.trim()) : null;
+    }
+
+    private record Key(Long powerStationId,
+            long dataVersion,
+            Double electricityCosts,
+            Double electricitySellingPrice,
+            Double currentCapacity,
+            Double reininvesttime,
+            Double panelcost) {
+    }
+}
@@ -1,267 +1,163 @@
 package com.pvmanagement.panelSizeOptimizer;
 
+import com.pvmanagement.monitoring.infra.DiurnalProfileRepository;
 import com.pvmanagement.monitoring.infra.PowerStationRepository;
-import com.pvmanagement.monitoring.infra.PowerflowSnapshotRepository;
 import com.pvmanagement.timeSeriesStatistics.DayTimeValue;
-import com.pvmanagement.timeSeriesStatistics.TimeValue;
+import com.pvmanagement.timeSeriesStatistics.DiurnalSlots;
 import com.pvmanagement.timeSeriesStatistics.TssService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
-import static com.pvmanagement.panelSizeOptimizer.PsoUtils.linearList;
+import static com.pvmanagement.panelSizeOptimizer.PsoUtils.linearArray;
 
 @Service
 public class PsoService {
 
+    private static final double MIN_CAPACITY = 0;
+    private static final double MAX_CAPACITY = 42;
+
     private final PowerStationRepository powerStationRepository;
-    private final PowerflowSnapshotRepository powerflowSnapshotRepository;
+    private final DiurnalProfileRepository diurnalProfileRepository;
     private final TssService tssService;
-
-    public PsoService(PowerStationRepository powerStationRepository, PowerflowSnapshotRepository powerflowSnapshotRepository, TssService tssService) {
+    private final MeterRegistry meterRegistry;
+    private final int capacitySteps;
+    // scenario sweeps run here rather than in the common pool, so they cannot crowd out other parallel work
+    private final ForkJoinPool pool;
+
+    public PsoService(PowerStationRepository powerStationRepository,
+            DiurnalProfileRepository diurnalProfileRepository,
+            TssService tssService,
+            MeterRegistry meterRegistry,
+            @Value("${app.pso.capacity-steps:100}") int capacitySteps,
+            @Value("${app.pso.parallelism:0}") int parallelism) {
+        if (capacitySteps <= 0) {
+            throw new IllegalArgumentException("app.pso.capacity-steps must be positive");
+        }
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("app.pso.parallelism must not be negative");
+        }
         this.powerStationRepository = powerStationRepository;
-        this.powerflowSnapshotRepository = powerflowSnapshotRepository;
+        this.diurnalProfileRepository = diurnalProfileRepository;
         this.tssService = tssService;
+        this.meterRegistry = meterRegistry;
+        this.capacitySteps = capacitySteps;
+        this.pool = new ForkJoinPool(parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism,
+                PsoService::newWorker,
+                null,
+                false);
     }
 
-    public PsoResponse getPanelSizeOptimizationData(Long powerStationId, PsoRequest request) {
-        var r = new BigDecimal("1").divide(new BigDecimal(request.reininvesttime()).multiply(new BigDecimal("365"))
-                        .multiply(new BigDecimal("24")),
-                10,
-                RoundingMode.HALF_UP);
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
 
-        var pvCapacitiesLinear = linearList(100,
-                0,
-                new BigDecimal("42").doubleValue()).stream()
-                .map(BigDecimal::valueOf)
-                .toList();
+    public PsoResponse getPanelSizeOptimizationData(Long powerStationId, PsoRequest request) {
+        double currentCapacity = Double.parseDouble(request.currentCapacity());
+        double[] pvCapacities = capacities(capacitySteps, currentCapacity);
+
+        if (!powerStationRepository.existsById(powerStationId)) {
+            throw new IllegalArgumentException("Power station not found");
+        }
+
+        var profile = diurnalProfileRepository.findByPowerStationId(powerStationId);
+        if (profile.isEmpty()) {
+            throw new IllegalArgumentException("No measurement history available for power station");
+        }
+        double[] production = tssService.meanSlots(profile.pvSums(), profile.pvCounts());
+        double[] consumption = tssService.meanSlots(profile.loadSums(), profile.loadCounts());
+
+        var factors = factors(request, production, currentCapacity);
+        // input size is the number of capacity scenarios evaluated, each over all 96 slots
+        meterRegistry.summary("analytics.input.size", "operation", "pso").record(pvCapacities.length);
+        return meterRegistry.timer("analytics.compute", "operation", "pso").record(() -> {
+            var result = PsoEngine.evaluate(production, consumption, pvCapacities, currentCapacity, factors, pool);
+            return toResponse(request, production, consumption, currentCapacity, result);
+        });
+    }
 
-        var pvCapacities = Stream.concat(pvCapacitiesLinear.stream(),
-                        Stream.of(new BigDecimal(request.currentCapacity())))
+    static double[] capacities(int steps, double currentCapacity) {
+        double[] linear = linearArray(steps, MIN_CAPACITY, MAX_CAPACITY);
+        double[] withCurrent = Arrays.copyOf(linear, linear.length + 1);
+        withCurrent[linear.length] = currentCapacity;
+        return Arrays.stream(withCurrent)
                 .distinct()
                 .sorted()
-                .toList();
-
-        var station = powerStationRepository.findById(powerStationId)
-                .orElseThrow(() -> new IllegalArgumentException("Power station not found"));
-        OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC);
-        OffsetDateTime from = OffsetDateTime.of(1970,
-                1,
-                1,
-                0,
-                0,
-                0,
-                0,
-                ZoneOffset.UTC);
-        var history =
-                powerflowSnapshotRepository.findByPowerStationAndPowerflowTimestampBetweenOrderByPowerflowTimestampAsc(station,
-                        from,
-                        to);
-
-        var productionHistory = history.stream()
-                .map(snapshot -> new TimeValue(snapshot.getPowerflowTimestamp(),
-                        snapshot.getPvW()))
-                .toList();
-
-        var consumptionHistory = history.stream()
-                .map(snapshot -> new TimeValue(snapshot.getPowerflowTimestamp(),
-                        snapshot.getLoadW()))
-                .toList();
-
-        List<DayTimeValue> diurnalAggregatedProduction = tssService.computeDiurnalMeanProfile(productionHistory);
-
-        var dailyMeanProduction = diurnalAggregatedProduction.stream()
-                .map(DayTimeValue::value)
-                .reduce(BigDecimal.ZERO,
-                        BigDecimal::add);
-
-        var diurnalProductionProfile = diurnalAggregatedProduction.stream()
-                .map(it -> DayTimeValue.builder()
-                        .value(it.value()
-                                .multiply(new BigDecimal("4")))
-                        .timestamp(it.timestamp())
-                        .build())
-                .toList();
-
-        var efficiencyFactor = dailyMeanProduction.divide(new BigDecimal(request.currentCapacity()).multiply(new BigDecimal("24")),
-                6,
-                RoundingMode.HALF_UP);
-
-        List<DayTimeValue> diurnalAggregatedConsumption = tssService.computeDiurnalMeanProfile(consumptionHistory);
-
-        var diurnalConsumptionProfile = diurnalAggregatedConsumption.stream()
-                .map(it -> DayTimeValue.builder()
-                        .value(it.value()
-                                .multiply(new BigDecimal("4")))
-                        .timestamp(it.timestamp())
-                        .build())
-                .toList();
-
-        // value-true for intergrating over 15-minutes intervals
-        var diurnalAggregatedProductions = pvCapacities.stream()
-                .map(targetCapacity -> diurnalAggregatedProduction.stream()
-                        .map(it -> DayTimeValue.builder()
-                                .timestamp(it.timestamp())
-                                .value(it.value()
-                                        .multiply(targetCapacity.divide(new BigDecimal(request.currentCapacity()),
-                                                10,
-                                                RoundingMode.HALF_UP)))
-                                .build())
-                        .toList())
-                .toList();
-
-        var diurnalProductionProfiles = pvCapacities.stream()
-                .map(targetCapacity -> diurnalProductionProfile.stream()
-                        .map(it -> DayTimeValue.builder()
-                                .timestamp(it.timestamp())
-                                .value(it.value()
-                                        .multiply(targetCapacity.divide(new BigDecimal(request.currentCapacity()),
-                                                10,
-                                                RoundingMode.HALF_UP)))
-                                .build())
-                        .toList())
-                .toList();
-
-        var fitFactor = new BigDecimal(request.panelcost()).divide(efficiencyFactor,
-                        10,
-                        RoundingMode.HALF_UP)
-                .multiply(r);
-
-        var excessFactor = fitFactor.subtract(new BigDecimal(request.electricitySellingPrice()));
-
-        var lackFactor = new BigDecimal(request.electricityCosts());
-
-        var fits = diurnalAggregatedProductions.stream()
-                .map(productionProfile -> {
-                    return productionProfile.stream()
-                            .map(p -> {
-
-                                var c = diurnalAggregatedConsumption.stream()
-                                        .filter(it -> it.timestamp()
-                                                .equals(p.timestamp()))
-                                        .findFirst()
-                                        .orElse(null);
-                                if (c == null) {
-                                    return null;
-                                }
-                                if (p.value()
-                                        .compareTo(c.value()) >= 0) {
-                                    return c.value();
-                                }
-                                else {
-                                    return p.value();
-                                }
-                            })
-                            .toList();
-                })
-                .toList();
-
-        var totalFits = fits.stream()
-                .map(fitProfile -> {
-                    return fitProfile.stream()
-                            .reduce(BigDecimal.ZERO,
-                                    BigDecimal::add);
-                })
-                .toList();
-
-        List<BigDecimal> fitAmounts = totalFits.stream()
-                .map(totalFit -> totalFit.multiply(fitFactor))
-                .toList();
-
-        var excesses = diurnalAggregatedProductions.stream()
-                .map(productionProfile -> {
-                    return productionProfile.stream()
-                            .map(p -> {
-                                var c = diurnalAggregatedConsumption.stream()
-                                        .filter(it -> it.timestamp()
-                                                .equals(p.timestamp()))
-                                        .findFirst()
-                                        .orElse(null);
-                                if (c == null) {
-                                    return null;
-                                }
-                                if (p.value()
-                                        .compareTo(c.value()) >= 0) {
-                                    return p.value()
-                                            .subtract(c.value());
-                                }
-                                else {
-                                    return BigDecimal.ZERO;
-                                }
-                            })
-                            .toList();
-                })
-                .toList();
-
-        var totalExcesses = excesses.stream()
-                .map(profile -> profile.stream()
-                        .reduce(BigDecimal.ZERO,
-                                BigDecimal::add))
-                .toList();
-
-        var excessAmounts = totalExcesses.stream()
-                .map(totalExcess -> totalExcess.multiply(excessFactor))
-                .toList();
-
-        var lacks = diurnalAggregatedProductions.stream()
-                .map(profile -> {
-                    return profile.stream()
-                            .map(p -> {
-                                var c = diurnalAggregatedConsumption.stream()
-                                        .filter(it -> it.timestamp()
-                                                .equals(p.timestamp()))
-                                        .findFirst()
-                                        .orElse(null);
-                                if (c == null) {
-                                    return null;
-                                }
-                                if (p.value()
-                                        .compareTo(c.value()) < 0) {
-                                    return c.value()
-                                            .subtract(p.value());
-                                }
-                                else {
-                                    return BigDecimal.ZERO;
-                                }
-                            })
-                            .toList();
-                })
-                .toList();
+                .toArray();
+    }
 
-        var totalLacks = lacks.stream()
-                .map(profile -> profile.stream()
-                        .reduce(BigDecimal.ZERO,
-                                BigDecimal::add))
-                .toList();
+    static PsoFactors factors(PsoRequest request, double[] production, double currentCapacity) {
+        double r = 1 / (Double.parseDouble(request.reininvesttime()) * 365 * 24);
+
+        double dailyMeanProduction = 0;
+        for (double value : production) {
+            dailyMeanProduction += value;
+        }
+        double efficiencyFactor = dailyMeanProduction / (currentCapacity * 24);
+        if (efficiencyFactor == 0) {
+            throw new IllegalArgumentException("No production recorded for power station");
+        }
+
+        double fitFactor = Double.parseDouble(request.panelcost()) / efficiencyFactor * r;
+        double excessFactor = fitFactor - Double.parseDouble(request.electricitySellingPrice());
+        double lackFactor = Double.parseDouble(request.electricityCosts());
+        return new PsoFactors(fitFactor, excessFactor, lackFactor);
+    }
 
-        var lackAmounts = totalLacks.stream()
-                .map(val -> val.multiply(lackFactor))
-                .toList();
+    // value * 4 turns kWh per 15-minute interval into the mean power in kW over that interval
+    private PsoResponse toResponse(PsoRequest request,
+            double[] production,
+            double[] consumption,
+            double currentCapacity,
+            PsoResult result) {
+        double[] capacities = result.capacities();
 
-        var totalAmounts = IntStream.range(0,
-                        fitAmounts.size())
-                .mapToObj(i -> fitAmounts.get(i)
-                        .add(excessAmounts.get(i))
-                        .add(lackAmounts.get(i)))
-                .toList();
+        // one scaled 96-slot profile per scenario; formatting these is most of the work, so it shares the pool
+        List<List<DayTimeValue>> diurnalProductionProfiles = pool.submit(() -> Arrays.stream(capacities)
+                .parallel()
+                .mapToObj(capacity -> toProfile(production, 4 * capacity / currentCapacity))
+                .toList()).join();
 
         return PsoResponse.builder()
-                .diurnalConsumptionProfile(diurnalConsumptionProfile)
+                .diurnalConsumptionProfile(toProfile(consumption, 4))
                 .diurnalProductionProfiles(diurnalProductionProfiles)
-                .fitAmounts(fitAmounts)
-                .excessAmounts(excessAmounts)
-                .lackAmounts(lackAmounts)
-                .totalAmounts(totalAmounts)
-                .pvCapacities(pvCapacities)
+                .fitAmounts(toDecimals(result.fitAmounts()))
+                .excessAmounts(toDecimals(result.excessAmounts()))
+                .lackAmounts(toDecimals(result.lackAmounts()))
+                .totalAmounts(toDecimals(result.totalAmounts()))
+                .pvCapacities(toDecimals(capacities))
                 .request(request)
                 .build();
     }
 
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("pso-" + worker.getPoolIndex());
+        return worker;
+    }
+
+    private static List<DayTimeValue> toProfile(double[] slots, double factor) {
+        List<DayTimeValue> profile = new ArrayList<>(slots.length);
+        for (int slot = 0; slot < slots.length; slot++) {
+            profile.add(new DayTimeValue(DiurnalSlots.slotTime(slot), BigDecimal.valueOf(slots[slot] * factor)));
+        }
+        return profile;
+    }
 
+    private static List<BigDecimal> toDecimals(double[] values) {
+        List<BigDecimal> decimals = new ArrayList<>(values.length);
+        for (double value : values) {
+            decimals.add(BigDecimal.valueOf(value));
+        }
+        return decimals;
+    }
 }
@@ -0,0 +1,29 @@
+package com.pvmanagement.timeSeriesStatistics;
+
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+
+/**
+ * Maps timestamps onto the 96 quarter-hour slots of a day and back.
+ */
+public final class DiurnalSlots {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private DiurnalSlots() {
+    }
+
+    // Rounds to the nearest UTC slot (e.g. 10:07 -> 10:00, 10:08 -> 10:15), 23:53 wraps to 00:00
+    public static int slotOf(OffsetDateTime timestamp) {
+        var utc = timestamp.withOffsetSameInstant(ZoneOffset.UTC);
+        int minutes = utc.getHour() * 60 + utc.getMinute();
+        return (int) Math.round(minutes / (double) SLOT_MINUTES) % SLOTS_PER_DAY;
+    }
+
+    public static OffsetTime slotTime(int slot) {
+        return OffsetTime.of(LocalTime.MIDNIGHT.plusMinutes((long) slot * SLOT_MINUTES), ZoneOffset.UTC);
+    }
+}
@@ -3,16 +3,14 @@ package com.pvmanagement.timeSeriesStatistics;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalTime;
-import java.time.OffsetTime;
-import java.time.ZoneOffset;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class TssService {
 
+    // converts a mean power in W into kWh per 15-minute interval
+    private static final double W_TO_KWH_PER_SLOT = 0.00025;
+
     public TssService() {}
 
     /**
@@ -22,66 +20,62 @@ public class TssService {
      * @return map of 15-minute interval (LocalTime) to average value (BigDecimal)
      */
     public List<DayTimeValue> computeDiurnalMeanProfile(List<TimeValue> series) {
-
-
-        if (series == null || series.isEmpty()) {
+        double[] slots = computeDiurnalMeanSlots(series);
+        if (slots == null) {
             return new ArrayList<>();
         }
 
-        var withoutNull = series.stream()
-                .filter(it -> it.value() != null)
-                .toList();
-
-        if (withoutNull.isEmpty()) {
-            return new ArrayList<>();
+        List<DayTimeValue> diurnalMean = new ArrayList<>(DiurnalSlots.SLOTS_PER_DAY);
+        for (int slot = 0; slot < DiurnalSlots.SLOTS_PER_DAY; slot++) {
+            diurnalMean.add(DayTimeValue.builder()
+                    .timestamp(DiurnalSlots.slotTime(slot))
+                    .value(BigDecimal.valueOf(slots[slot]))
+                    .build());
         }
+        return diurnalMean;
+    }
 
-        // Group by 15-minute rounded OffsetTime
-        Map<OffsetTime, List<BigDecimal>> grouped = withoutNull.stream()
-                .collect(Collectors.groupingBy(
-                        t -> roundTo15Min(t.timestamp().toOffsetTime()),
-                        TreeMap::new,
-                        Collectors.mapping(TimeValue::value, Collectors.toList())
-                ));
-
-        // Compute mean per group into a map: time -> mean
-        Map<OffsetTime, BigDecimal> meanByTime = new TreeMap<>();
-        for (var entry : grouped.entrySet()) {
-            BigDecimal sum = entry.getValue().stream()
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            BigDecimal mean = sum.divide(
-                    BigDecimal.valueOf(entry.getValue().size()),
-                    6,
-                    RoundingMode.HALF_UP
-            );
-            meanByTime.put(entry.getKey(), mean);
+    /**
+     * Computes the diurnal mean profile in kWh per 15-minute interval, indexed by slot.
+     * Slots without samples are zero.
+     *
+     * @param series array of Timeseries records
+     * @return 96 slot values, or {@code null} if the series holds no values
+     */
+    public double[] computeDiurnalMeanSlots(List<TimeValue> series) {
+        if (series == null || series.isEmpty()) {
+            return null;
         }
-
-        // Build a full-day profile in 15-minute steps, fill missing with zero
-        List<DayTimeValue> diurnalMean = new ArrayList<>(96);
-
-        // Use offset of first timestamp as base
-        ZoneOffset offset = series.get(0).timestamp().getOffset();
-        OffsetTime current = OffsetTime.of(LocalTime.MIDNIGHT, offset);
-
-        for (int i = 0; i < 24 * 60; i += 15) {
-            OffsetTime t = current.plusMinutes(i);
-            BigDecimal value = meanByTime.getOrDefault(t, BigDecimal.ZERO);
-
-            diurnalMean.add(DayTimeValue.builder()
-                    .timestamp(t)
-                    .value(value.multiply(new BigDecimal("0.00025")))
-                    .build());
+        double[] sums = new double[DiurnalSlots.SLOTS_PER_DAY];
+        long[] counts = new long[DiurnalSlots.SLOTS_PER_DAY];
+        boolean anyValue = false;
+        for (TimeValue point : series) {
+            if (point.value() == null) {
+                continue;
+            }
+            int slot = DiurnalSlots.slotOf(point.timestamp());
+            sums[slot] += point.value().doubleValue();
+            counts[slot]++;
+            anyValue = true;
         }
 
-        return diurnalMean;
+        if (!anyValue) {
+            return null;
+        }
+        return meanSlots(sums, counts);
     }
 
-    // Helper: rounds a LocalTime to the nearest 15-minute interval (e.g. 10:07 -> 10:00, 10:09 -> 10:15)
-    private static OffsetTime roundTo15Min(OffsetTime time) {
-        int minutes = time.getHour() * 60 + time.getMinute();
-        int rounded = (int) (Math.round(minutes / 15.0) * 15);
-        return OffsetTime.of(rounded / 60 % 24, rounded % 60,0,0, ZoneOffset.UTC);
+    /**
+     * Turns per-slot running sums and sample counts of a power in W into kWh per 15-minute interval.
+     */
+    public double[] meanSlots(double[] sums, long[] counts) {
+        double[] means = new double[DiurnalSlots.SLOTS_PER_DAY];
+        for (int slot = 0; slot < DiurnalSlots.SLOTS_PER_DAY; slot++) {
+            if (counts[slot] > 0) {
+                means[slot] = sums[slot] / counts[slot] * W_TO_KWH_PER_SLOT;
+            }
+        }
+        return means;
     }
 
 }
@@ -0,0 +1,29 @@
+-- Running per-station sums and sample counts for each quarter-hour slot of the day (UTC),
+-- maintained by ingestion so diurnal means never require a full history scan.
+CREATE TABLE diurnal_profile (
+    powerstation_id BIGINT NOT NULL REFERENCES powerstation(powerstation_id) ON DELETE CASCADE,
+    slot SMALLINT NOT NULL CHECK (slot >= 0 AND slot < 96),
+    pv_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    pv_count BIGINT NOT NULL DEFAULT 0,
+    load_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    load_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (powerstation_id, slot)
+);
+
+-- Seed from the existing history; slots round to the nearest 15 minutes and 23:53 wraps to 00:00
+INSERT INTO diurnal_profile (powerstation_id, slot, pv_sum, pv_count, load_sum, load_count)
+SELECT powerstation_id,
+       slot,
+       COALESCE(SUM(pv_w), 0),
+       COUNT(pv_w),
+       COALESCE(SUM(load_w), 0),
+       COUNT(load_w)
+FROM (
+    SELECT powerstation_id,
+           pv_w,
+           load_w,
+           (ROUND((EXTRACT(HOUR FROM powerflow_timestamp AT TIME ZONE 'UTC') * 60
+                 + EXTRACT(MINUTE FROM powerflow_timestamp AT TIME ZONE 'UTC')) / 15.0)::INT % 96) AS slot
+    FROM powerflow_snapshot
+) slotted
+GROUP BY powerstation_id, slot;
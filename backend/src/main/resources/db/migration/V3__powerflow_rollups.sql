@@ -0,0 +1,83 @@
+-- Pre-aggregated powerflow series per station in 15-minute, hourly and daily UTC buckets.
+-- Power columns hold sums/counts (for means) plus extremes in W; *_wh columns integrate power
+-- over the gap since the previous snapshot (capped at 15 minutes) in Wh.
+CREATE TABLE powerflow_rollup_15m (
+    powerstation_id BIGINT NOT NULL REFERENCES powerstation(powerstation_id) ON DELETE CASCADE,
+    bucket_start TIMESTAMPTZ NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    pv_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    pv_count BIGINT NOT NULL DEFAULT 0,
+    pv_min DOUBLE PRECISION,
+    pv_max DOUBLE PRECISION,
+    pv_wh DOUBLE PRECISION NOT NULL DEFAULT 0,
+    load_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    load_count BIGINT NOT NULL DEFAULT 0,
+    load_min DOUBLE PRECISION,
+    load_max DOUBLE PRECISION,
+    load_wh DOUBLE PRECISION NOT NULL DEFAULT 0,
+    grid_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    grid_count BIGINT NOT NULL DEFAULT 0,
+    grid_min DOUBLE PRECISION,
+    grid_max DOUBLE PRECISION,
+    grid_wh DOUBLE PRECISION NOT NULL DEFAULT 0,
+    battery_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    battery_count BIGINT NOT NULL DEFAULT 0,
+    battery_min DOUBLE PRECISION,
+    battery_max DOUBLE PRECISION,
+    battery_wh DOUBLE PRECISION NOT NULL DEFAULT 0,
+    soc_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    soc_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (powerstation_id, bucket_start)
+);
+
+CREATE TABLE powerflow_rollup_1h (LIKE powerflow_rollup_15m INCLUDING ALL);
+ALTER TABLE powerflow_rollup_1h
+    ADD FOREIGN KEY (powerstation_id) REFERENCES powerstation(powerstation_id) ON DELETE CASCADE;
+
+CREATE TABLE powerflow_rollup_1d (LIKE powerflow_rollup_15m INCLUDING ALL);
+ALTER TABLE powerflow_rollup_1d
+    ADD FOREIGN KEY (powerstation_id) REFERENCES powerstation(powerstation_id) ON DELETE CASCADE;
+
+-- Seed the 15-minute tier from the existing history, then roll it up into the coarser tiers
+INSERT INTO powerflow_rollup_15m
+SELECT powerstation_id,
+       date_bin('15 minutes', powerflow_timestamp, TIMESTAMPTZ '1970-01-01 00:00:00+00') AS bucket_start,
+       COUNT(*),
+       COALESCE(SUM(pv_w), 0), COUNT(pv_w), MIN(pv_w), MAX(pv_w), COALESCE(SUM(pv_w * hours), 0),
+       COALESCE(SUM(load_w), 0), COUNT(load_w), MIN(load_w), MAX(load_w), COALESCE(SUM(load_w * hours), 0),
+       COALESCE(SUM(grid_w), 0), COUNT(grid_w), MIN(grid_w), MAX(grid_w), COALESCE(SUM(grid_w * hours), 0),
+       COALESCE(SUM(battery_w), 0), COUNT(battery_w), MIN(battery_w), MAX(battery_w), COALESCE(SUM(battery_w * hours), 0),
+       COALESCE(SUM(soc_percent), 0), COUNT(soc_percent)
+FROM (
+    SELECT powerstation_id,
+           powerflow_timestamp,
+           pv_w, load_w, grid_w, battery_w, soc_percent,
+           COALESCE(LEAST(EXTRACT(EPOCH FROM powerflow_timestamp - LAG(powerflow_timestamp)
+                   OVER (PARTITION BY powerstation_id ORDER BY powerflow_timestamp)), 900), 0) / 3600.0 AS hours
+    FROM powerflow_snapshot
+) samples
+GROUP BY powerstation_id, bucket_start;
+
+INSERT INTO powerflow_rollup_1h
+SELECT powerstation_id,
+       date_trunc('hour', bucket_start AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS hour_start,
+       SUM(sample_count),
+       SUM(pv_sum), SUM(pv_count), MIN(pv_min), MAX(pv_max), SUM(pv_wh),
+       SUM(load_sum), SUM(load_count), MIN(load_min), MAX(load_max), SUM(load_wh),
+       SUM(grid_sum), SUM(grid_count), MIN(grid_min), MAX(grid_max), SUM(grid_wh),
+       SUM(battery_sum), SUM(battery_count), MIN(battery_min), MAX(battery_max), SUM(battery_wh),
+       SUM(soc_sum), SUM(soc_count)
+FROM powerflow_rollup_15m
+GROUP BY powerstation_id, hour_start;
+
+INSERT INTO powerflow_rollup_1d
+SELECT powerstation_id,
+       date_trunc('day', bucket_start AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS day_start,
+       SUM(sample_count),
+       SUM(pv_sum), SUM(pv_count), MIN(pv_min), MAX(pv_max), SUM(pv_wh),
+       SUM(load_sum), SUM(load_count), MIN(load_min), MAX(load_max), SUM(load_wh),
+       SUM(grid_sum), SUM(grid_count), MIN(grid_min), MAX(grid_max), SUM(grid_wh),
+       SUM(battery_sum), SUM(battery_count), MIN(battery_min), MAX(battery_max), SUM(battery_wh),
+       SUM(soc_sum), SUM(soc_count)
+FROM powerflow_rollup_1h
+GROUP BY powerstation_id, day_start;
@@ -0,0 +1,4 @@
+-- Keyset cursor over external_api_cache: (last_fetched_at, last_entry_id) of the last committed page.
+-- A NULL entry id resumes strictly after last_fetched_at, matching cursors written before this column.
+ALTER TABLE ingestion_state
+    ADD COLUMN last_entry_id BIGINT;
@@ -0,0 +1,69 @@
+-- Range-partitions powerflow_snapshot by UTC month. The primary key (powerstation_id, powerflow_timestamp)
+-- replaces the former unique constraint and the index that duplicated it; powerflow_id keeps its sequence
+-- default but is no longer a key, since unique keys on a partitioned table must include the timestamp.
+ALTER TABLE powerflow_snapshot RENAME TO powerflow_snapshot_unpartitioned;
+ALTER SEQUENCE powerflow_snapshot_powerflow_id_seq OWNED BY NONE;
+
+CREATE TABLE powerflow_snapshot (
+    powerflow_id BIGINT NOT NULL DEFAULT nextval('powerflow_snapshot_powerflow_id_seq'),
+    powerstation_id BIGINT NOT NULL REFERENCES powerstation(powerstation_id) ON DELETE CASCADE,
+    powerflow_timestamp TIMESTAMPTZ NOT NULL,
+    pv_w NUMERIC(12,3),
+    pv_status VARCHAR(64),
+    battery_w NUMERIC(12,3),
+    battery_status VARCHAR(64),
+    load_w NUMERIC(12,3),
+    load_status VARCHAR(64),
+    grid_w NUMERIC(12,3),
+    grid_status VARCHAR(64),
+    genset_w NUMERIC(12,3),
+    microgrid_w NUMERIC(12,3),
+    soc_percent NUMERIC(6,3),
+    PRIMARY KEY (powerstation_id, powerflow_timestamp)
+) PARTITION BY RANGE (powerflow_timestamp);
+
+ALTER SEQUENCE powerflow_snapshot_powerflow_id_seq OWNED BY powerflow_snapshot.powerflow_id;
+
+-- Creates the partition for the UTC month containing month_start (powerflow_snapshot_YYYY_MM) unless it
+-- exists. Called by the backend ahead of time, so ingestion never hits a missing partition.
+CREATE FUNCTION create_powerflow_snapshot_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month_start::TIMESTAMP)::DATE;
+    partition_name TEXT := 'powerflow_snapshot_' || to_char(first_day, 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF powerflow_snapshot FOR VALUES FROM (%L) TO (%L)',
+                   partition_name,
+                   first_day::TIMESTAMP AT TIME ZONE 'UTC',
+                   (first_day + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC');
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- One partition per month of existing history, up to two months ahead
+DO $$
+DECLARE
+    month DATE;
+    last_month DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(powerflow_timestamp), NOW()) AT TIME ZONE 'UTC')::DATE,
+           date_trunc('month', GREATEST(COALESCE(MAX(powerflow_timestamp), NOW()), NOW() + INTERVAL '2 months')
+                               AT TIME ZONE 'UTC')::DATE
+    INTO month, last_month
+    FROM powerflow_snapshot_unpartitioned;
+
+    WHILE month <= last_month LOOP
+        PERFORM create_powerflow_snapshot_partition(month);
+        month := (month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO powerflow_snapshot (powerflow_id, powerstation_id, powerflow_timestamp, pv_w, pv_status, battery_w,
+                                battery_status, load_w, load_status, grid_w, grid_status, genset_w, microgrid_w,
+                                soc_percent)
+SELECT powerflow_id, powerstation_id, powerflow_timestamp, pv_w, pv_status, battery_w,
+       battery_status, load_w, load_status, grid_w, grid_status, genset_w, microgrid_w,
+       soc_percent
+FROM powerflow_snapshot_unpartitioned;
+
+DROP TABLE powerflow_snapshot_unpartitioned;
@@ -0,0 +1,19 @@
+-- Compact powerflow_snapshot rows: power and state of charge as REAL (4 bytes, exact for whole watts up
+-- to 16 MW) instead of NUMERIC, and the SEMS flow status codes (-1, 0, 1) as SMALLINT instead of VARCHAR.
+-- Runs on the partitioned parent and recurses into every partition.
+ALTER TABLE powerflow_snapshot
+    ALTER COLUMN pv_w TYPE REAL,
+    ALTER COLUMN battery_w TYPE REAL,
+    ALTER COLUMN load_w TYPE REAL,
+    ALTER COLUMN grid_w TYPE REAL,
+    ALTER COLUMN genset_w TYPE REAL,
+    ALTER COLUMN microgrid_w TYPE REAL,
+    ALTER COLUMN soc_percent TYPE REAL,
+    ALTER COLUMN pv_status TYPE SMALLINT
+        USING CASE WHEN trim(pv_status) ~ '^-?[0-9]{1,4}$' THEN trim(pv_status)::SMALLINT END,
+    ALTER COLUMN battery_status TYPE SMALLINT
+        USING CASE WHEN trim(battery_status) ~ '^-?[0-9]{1,4}$' THEN trim(battery_status)::SMALLINT END,
+    ALTER COLUMN load_status TYPE SMALLINT
+        USING CASE WHEN trim(load_status) ~ '^-?[0-9]{1,4}$' THEN trim(load_status)::SMALLINT END,
+    ALTER COLUMN grid_status TYPE SMALLINT
+        USING CASE WHEN trim(grid_status) ~ '^-?[0-9]{1,4}$' THEN trim(grid_status)::SMALLINT END;
@@ -0,0 +1,45 @@
+-- Months whose raw powerflow_snapshot partition was retired (detached or dropped) by the backend. Their
+-- history is served from the 15-minute rollups, and late rows for them are not stored raw again.
+CREATE TABLE powerflow_snapshot_retired_month (
+    month DATE PRIMARY KEY,
+    retired_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Months retired before this table existed: rolled up, but without an attached partition
+INSERT INTO powerflow_snapshot_retired_month (month)
+SELECT DISTINCT date_trunc('month', bucket_start AT TIME ZONE 'UTC')::DATE
+FROM powerflow_rollup_15m
+WHERE NOT EXISTS (
+    SELECT 1
+    FROM pg_inherits i
+    JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = 'powerflow_snapshot'::regclass
+      AND c.relname = 'powerflow_snapshot_'
+                      || to_char(date_trunc('month', bucket_start AT TIME ZONE 'UTC'), 'YYYY_MM')
+);
+
+-- Creates the partition for the UTC month containing month_start unless it exists. Returns NULL instead for a
+-- retired month, including one whose detached partition still holds the name, so late rows for it are skipped
+-- rather than failing the insert.
+CREATE OR REPLACE FUNCTION create_powerflow_snapshot_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month_start::TIMESTAMP)::DATE;
+    partition_name TEXT := 'powerflow_snapshot_' || to_char(first_day, 'YYYY_MM');
+    existing REGCLASS := to_regclass(partition_name);
+BEGIN
+    IF EXISTS (SELECT 1 FROM powerflow_snapshot_retired_month WHERE month = first_day) THEN
+        RETURN NULL;
+    END IF;
+    IF existing IS NOT NULL THEN
+        IF EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = existing AND inhparent = 'powerflow_snapshot'::regclass) THEN
+            RETURN partition_name;
+        END IF;
+        RETURN NULL;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF powerflow_snapshot FOR VALUES FROM (%L) TO (%L)',
+                   partition_name,
+                   first_day::TIMESTAMP AT TIME ZONE 'UTC',
+                   (first_day + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC');
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,65 @@
+package com.pvmanagement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+class ResponseSizeMetricsFilterTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ResponseSizeMetricsFilter filter = new ResponseSizeMetricsFilter(registry);
+
+    @Test
+    void synchronous_response_is_recorded_after_the_chain() throws Exception {
+        var request = request("/api/powerstations/{id}");
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> res.getWriter().write("{\"id\":1}"));
+
+        Assertions.assertEquals(8, registry.get("http.server.response.size")
+                .tag("uri", "/api/powerstations/{id}").summary().totalAmount());
+    }
+
+    @Test
+    void async_response_is_recorded_on_completion_with_everything_written_later() throws Exception {
+        var request = request("/api/measurements/live/{id}");
+        request.setAsyncSupported(true);
+        var response = new MockHttpServletResponse();
+        var streamed = new ServletResponse[1];
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.startAsync();
+            streamed[0] = res;
+        });
+        Assertions.assertNull(registry.find("http.server.response.size").summary());
+
+        var event = "data:{}\n\n".getBytes(StandardCharsets.UTF_8);
+        var writer = new Thread(() -> {
+            try {
+                streamed[0].getOutputStream().write(event);
+                streamed[0].getOutputStream().write(event);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        writer.start();
+        writer.join();
+        request.getAsyncContext().complete();
+
+        var summary = registry.get("http.server.response.size").tag("uri", "/api/measurements/live/{id}").summary();
+        Assertions.assertEquals(1, summary.count());
+        Assertions.assertEquals(2 * event.length, summary.totalAmount());
+    }
+
+    private static MockHttpServletRequest request(String pattern) {
+        var request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
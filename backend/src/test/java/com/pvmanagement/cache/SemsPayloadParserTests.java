@@ -0,0 +1,84 @@
+package com.pvmanagement.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pvmanagement.integration.cache.app.SemsPayloadParser;
+import com.pvmanagement.integration.cache.infra.CachePayloadCodec;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SemsPayloadParserTests {
+
+    private static final Instant FETCHED_AT = Instant.parse("2024-05-06T10:35:00Z");
+
+    private final SemsPayloadParser parser = new SemsPayloadParser(new ObjectMapper());
+
+    @Test
+    void reads_station_and_powerflow_from_sample_payload() throws Exception {
+        String json;
+        try (InputStream in = getClass().getResourceAsStream("/sems/sample-monitor-response.json")) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        var payload = parser.parse(json, FETCHED_AT);
+
+        var station = payload.station();
+        Assertions.assertEquals("Home PV", station.getStationname());
+        Assertions.assertEquals(6.6, station.getCapacityKWp());
+        Assertions.assertEquals("1", station.getStatus());
+        Assertions.assertTrue(station.getIsPowerflow());
+        Assertions.assertEquals(OffsetDateTime.of(2023, 4, 1, 8, 0, 0, 0, ZoneOffset.UTC), station.getTurnonTime());
+
+        var snapshot = payload.snapshot();
+        Assertions.assertEquals(OffsetDateTime.ofInstant(FETCHED_AT, ZoneOffset.UTC), snapshot.getPowerflowTimestamp());
+        Assertions.assertEquals(new BigDecimal("4200"), snapshot.getPvW());
+        Assertions.assertEquals(new BigDecimal("-502"), snapshot.getBatteryW());
+        Assertions.assertEquals(new BigDecimal("68"), snapshot.getSocPercent());
+        Assertions.assertEquals((short) -1, snapshot.getBatteryStatus());
+    }
+
+    @Test
+    void reads_compressed_payload_like_json() throws Exception {
+        String json;
+        try (InputStream in = getClass().getResourceAsStream("/sems/sample-monitor-response.json")) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        byte[] blob = CachePayloadCodec.encode(json);
+        Assertions.assertTrue(blob.length < json.length() / 2);
+
+        var fromJson = parser.parse(json, FETCHED_AT);
+        var fromSmile = parser.parseSmile(CachePayloadCodec.decode(blob), FETCHED_AT);
+        Assertions.assertEquals(fromJson.station().getStationname(), fromSmile.station().getStationname());
+        Assertions.assertEquals(fromJson.station().getTurnonTime(), fromSmile.station().getTurnonTime());
+        Assertions.assertEquals(fromJson.snapshot().getPvW(), fromSmile.snapshot().getPvW());
+        Assertions.assertEquals(fromJson.snapshot().getBatteryW(), fromSmile.snapshot().getBatteryW());
+        Assertions.assertEquals(fromJson.snapshot().getSocPercent(), fromSmile.snapshot().getSocPercent());
+    }
+
+    @Test
+    void scans_locale_formatted_numbers_out_of_text() throws Exception {
+        Assertions.assertEquals(new BigDecimal("1234.5"), pv("1.234,5(W)"));
+        Assertions.assertEquals(new BigDecimal("1234.5"), pv("1,234.5(W)"));
+        Assertions.assertEquals(new BigDecimal("-0.42"), pv("-0,42 kW"));
+        Assertions.assertEquals(new BigDecimal("1234567"), pv("1,234,567 W"));
+        Assertions.assertEquals(new BigDecimal("5"), pv("5.(W)"));
+        Assertions.assertNull(pv("--(W)"));
+    }
+
+    @Test
+    void rejects_payload_without_station_info() {
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> parser.parse("{\"data\":{\"powerflow\":{\"pv\":\"1(W)\"}}}", FETCHED_AT));
+    }
+
+    private BigDecimal pv(String text) throws Exception {
+        String json = "{\"data\":{\"info\":{\"stationname\":\"x\"},\"powerflow\":{\"pv\":\"" + text + "\"}}}";
+        return parser.parse(json, FETCHED_AT).snapshot().getPvW();
+    }
+}
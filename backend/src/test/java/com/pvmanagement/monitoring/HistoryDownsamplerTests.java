@@ -0,0 +1,138 @@
+package com.pvmanagement.monitoring;
+
+import com.pvmanagement.monitoring.app.HistoryDownsampler;
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+class HistoryDownsamplerTests {
+
+    private static final OffsetDateTime FROM = OffsetDateTime.ofInstant(Instant.ofEpochSecond(0), ZoneOffset.UTC);
+
+    private final List<float[]> points = new ArrayList<>();
+
+    @Test
+    void peak_inside_a_bucket_survives_in_time_order() {
+        // 2 buckets of 50 s over [0, 99]
+        var downsampler = downsampler(99, 4);
+        var series = new PowerflowSeries(100);
+        for (long t = 0; t < 100; t++) {
+            series.add(t, t == 30 ? 5000 : 100, t == 70 ? -800 : 0, 0, 0, 50);
+        }
+        downsampler.accept(series);
+        downsampler.finish();
+
+        Assertions.assertEquals(4, points.size());
+        // first bucket: pv rises to its maximum at 30
+        assertPoint(0, 0, 100);
+        assertPoint(1, 30, 5000);
+        // second bucket: battery holds its maximum from 50 and dips at 70
+        Assertions.assertEquals(50, points.get(2)[0]);
+        Assertions.assertEquals(100, points.get(2)[1]);
+        Assertions.assertEquals(0, points.get(2)[2]);
+        Assertions.assertEquals(70, points.get(3)[0]);
+        Assertions.assertEquals(-800, points.get(3)[2]);
+    }
+
+    @Test
+    void samples_on_a_bucket_boundary_start_the_next_bucket() {
+        var downsampler = downsampler(99, 4);
+        downsampler.accept(series(new long[]{49, 50}, new float[]{1, 2}));
+        downsampler.finish();
+
+        Assertions.assertEquals(2, points.size());
+        assertPoint(0, 49, 1);
+        assertPoint(1, 50, 2);
+    }
+
+    @Test
+    void output_never_exceeds_max_points() {
+        var downsampler = downsampler(9_999, 7);
+        var series = new PowerflowSeries(10_000);
+        for (long t = 0; t < 10_000; t++) {
+            series.add(t, (float) Math.sin(t / 10.0), 0, 0, 0, 0);
+        }
+        downsampler.accept(series);
+        downsampler.finish();
+
+        Assertions.assertTrue(points.size() <= 7, "got " + points.size());
+        for (int i = 1; i < points.size(); i++) {
+            Assertions.assertTrue(points.get(i - 1)[0] < points.get(i)[0]);
+        }
+    }
+
+    @Test
+    void fewer_samples_than_max_points_are_passed_through() {
+        var downsampler = downsampler(3_600, 1_000);
+        downsampler.accept(series(new long[]{10, 20, 3_000}, new float[]{1, 2, 3}));
+        downsampler.finish();
+
+        Assertions.assertEquals(3, points.size());
+        assertPoint(0, 10, 1);
+        assertPoint(1, 20, 2);
+        assertPoint(2, 3_000, 3);
+    }
+
+    @Test
+    void empty_range_yields_no_points() {
+        var downsampler = downsampler(3_600, 100);
+        downsampler.accept(new PowerflowSeries(4));
+        downsampler.finish();
+
+        Assertions.assertTrue(points.isEmpty());
+    }
+
+    @Test
+    void missing_channels_stay_missing_and_do_not_hide_the_others() {
+        var downsampler = downsampler(99, 2);
+        var series = new PowerflowSeries(3);
+        series.add(0, 1, Float.NaN, Float.NaN, Float.NaN, Float.NaN);
+        series.add(10, Float.NaN, Float.NaN, Float.NaN, Float.NaN, 40);
+        series.add(20, 3, Float.NaN, Float.NaN, Float.NaN, 60);
+        downsampler.accept(series);
+        downsampler.finish();
+
+        Assertions.assertEquals(2, points.size());
+        Assertions.assertArrayEquals(new float[]{0, 1, Float.NaN, Float.NaN, Float.NaN, 40}, points.get(0));
+        Assertions.assertArrayEquals(new float[]{20, 3, Float.NaN, Float.NaN, Float.NaN, 60}, points.get(1));
+    }
+
+    @Test
+    void single_point_limit_yields_the_mean() {
+        var downsampler = downsampler(99, 1);
+        downsampler.accept(series(new long[]{0, 10, 20}, new float[]{1, 2, 6}));
+        downsampler.finish();
+
+        Assertions.assertEquals(1, points.size());
+        assertPoint(0, 10, 3);
+    }
+
+    private HistoryDownsampler downsampler(long toSecond, int maxPoints) {
+        var to = OffsetDateTime.ofInstant(Instant.ofEpochSecond(toSecond), ZoneOffset.UTC);
+        return new HistoryDownsampler(FROM, to, maxPoints, chunk -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                points.add(new float[]{chunk.epochSecond(i), chunk.pvW(i), chunk.batteryW(i), chunk.loadW(i),
+                        chunk.gridW(i), chunk.socPercent(i)});
+            }
+        });
+    }
+
+    private void assertPoint(int index, long epochSecond, float pv) {
+        Assertions.assertEquals(epochSecond, (long) points.get(index)[0]);
+        Assertions.assertEquals(pv, points.get(index)[1]);
+    }
+
+    private static PowerflowSeries series(long[] epochSeconds, float[] pv) {
+        var series = new PowerflowSeries(epochSeconds.length);
+        for (int i = 0; i < epochSeconds.length; i++) {
+            series.add(epochSeconds[i], pv[i], 0, 0, 0, 0);
+        }
+        return series;
+    }
+}
@@ -0,0 +1,43 @@
+package com.pvmanagement.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+import com.pvmanagement.monitoring.web.HistoryJsonWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.OffsetDateTime;
+
+class HistoryJsonWriterTests {
+
+    private final HistoryJsonWriter writer = new HistoryJsonWriter(new ObjectMapper());
+
+    @Test
+    void points_are_written_as_plain_decimals_with_iso_timestamps() throws Exception {
+        var chunk = new PowerflowSeries(4);
+        chunk.add(epochSecond("2024-06-21T11:00:00Z"), 12_500_000f, -0.25f, 1234.5678f, Float.NaN, 0.0004f);
+        chunk.add(epochSecond("2024-06-22T00:00:59Z"), 0f, -1f, 0.1f, 3f, 99.5f);
+
+        var response = new MockHttpServletResponse();
+        writer.writeHistory(response, action -> action.accept(chunk));
+
+        Assertions.assertEquals("""
+                [{"timestamp":"2024-06-21T11:00:00Z","pvW":12500000,"batteryW":-0.25,"loadW":1234.568,\
+                "gridW":null,"socPercent":0},\
+                {"timestamp":"2024-06-22T00:00:59Z","pvW":0,"batteryW":-1,"loadW":0.1,"gridW":3,"socPercent":99.5}]""",
+                response.getContentAsString());
+    }
+
+    @Test
+    void empty_history_is_an_empty_array() throws Exception {
+        var response = new MockHttpServletResponse();
+        writer.writeHistory(response, action -> { });
+
+        Assertions.assertEquals("[]", response.getContentAsString());
+    }
+
+    private static long epochSecond(String timestamp) {
+        return OffsetDateTime.parse(timestamp).toEpochSecond();
+    }
+}
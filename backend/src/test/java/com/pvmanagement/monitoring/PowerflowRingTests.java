@@ -0,0 +1,60 @@
+package com.pvmanagement.monitoring;
+
+import com.pvmanagement.monitoring.domain.PowerflowRing;
+import com.pvmanagement.monitoring.domain.PowerflowSeries;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PowerflowRingTests {
+
+    @Test
+    void full_ring_drops_oldest_and_moves_coverage_past_it() {
+        var ring = new PowerflowRing(3, 100);
+        for (long t = 100; t <= 104; t++) {
+            ring.insert(t, t, 0, 0, 0, 50);
+        }
+
+        Assertions.assertEquals(3, ring.size());
+        Assertions.assertEquals(102, ring.coveredFrom());
+        Assertions.assertEquals(104, ring.latest().epochSecond());
+        Assertions.assertArrayEquals(new long[]{102, 103, 104}, timestamps(ring, 0, 200));
+    }
+
+    @Test
+    void late_samples_are_inserted_in_order_and_duplicates_ignored() {
+        var ring = new PowerflowRing(4, 100);
+        ring.insert(100, 1, 0, 0, 0, 50);
+        ring.insert(130, 3, 0, 0, 0, 50);
+        ring.insert(120, 2, 0, 0, 0, 50);
+        ring.insert(120, 9, 0, 0, 0, 50);
+        // before the covered window, the database answers for it
+        ring.insert(90, 0, 0, 0, 0, 50);
+
+        Assertions.assertArrayEquals(new long[]{100, 120, 130}, timestamps(ring, 0, 200));
+        Assertions.assertArrayEquals(new long[]{120}, timestamps(ring, 101, 129));
+        Assertions.assertEquals(3, ring.latest().pvW());
+    }
+
+    @Test
+    void copy_stops_when_the_chunk_is_full() {
+        var ring = new PowerflowRing(8, 0);
+        for (long t = 0; t < 5; t++) {
+            ring.insert(t, Float.NaN, 0, 0, 0, 50);
+        }
+        var chunk = new PowerflowSeries(2);
+
+        Assertions.assertEquals(2, ring.copy(1, 10, chunk));
+        Assertions.assertEquals(2, chunk.epochSecond(1));
+        Assertions.assertTrue(Float.isNaN(chunk.pvW(0)));
+    }
+
+    private static long[] timestamps(PowerflowRing ring, long from, long to) {
+        var chunk = new PowerflowSeries(16);
+        ring.copy(from, to, chunk);
+        long[] timestamps = new long[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            timestamps[i] = chunk.epochSecond(i);
+        }
+        return timestamps;
+    }
+}
@@ -0,0 +1,139 @@
+package com.pvmanagement.monitoring;
+
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import com.pvmanagement.monitoring.domain.RollupTier;
+import com.pvmanagement.monitoring.infra.PowerflowRollupRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class PowerflowRollupTests {
+
+    private static final long STATION = 7L;
+
+    private final List<String> batchSql = new ArrayList<>();
+    private final List<List<Object[]>> batchRows = new ArrayList<>();
+    private final List<Object[]> rebuilds = new ArrayList<>();
+    private long storedFrom;
+    private Timestamp previous;
+    private Timestamp next;
+
+    // answers the lookups accumulate() makes and records its writes
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            if (sql.contains("COUNT(*)")) {
+                return (T) Long.valueOf(storedFrom);
+            }
+            return (T) (sql.contains("MAX(") ? previous : next);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            batchSql.add(sql);
+            batchRows.add(batchArgs);
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            rebuilds.add(args);
+            return 0;
+        }
+    };
+    private final PowerflowRollupRepository repository = new PowerflowRollupRepository(jdbcTemplate);
+
+    @Test
+    void coarsest_tier_still_resolves_the_buckets() {
+        var from = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+        Assertions.assertNull(RollupTier.coarsestFor(from, from.plusDays(1), 200));
+        Assertions.assertEquals(RollupTier.QUARTER_HOUR, RollupTier.coarsestFor(from, from.plusDays(1), 96));
+        Assertions.assertEquals(RollupTier.HOUR, RollupTier.coarsestFor(from, from.plusDays(30), 100));
+        Assertions.assertEquals(RollupTier.DAY, RollupTier.coarsestFor(from, from.plusYears(1), 100));
+        Assertions.assertEquals(RollupTier.DAY, RollupTier.coarsestFor(from, from.plusDays(30), 0));
+    }
+
+    @Test
+    void appended_snapshots_add_energy_over_capped_gaps() {
+        previous = timestamp("2024-06-21T09:55:00Z");
+        var snapshots = List.of(snapshot("2024-06-21T10:00:00Z", 1200), snapshot("2024-06-21T10:05:00Z", 1200),
+                snapshot("2024-06-21T10:20:00Z", 600), snapshot("2024-06-21T10:40:00Z", 1200));
+        storedFrom = snapshots.size();
+
+        repository.accumulate(STATION, snapshots);
+
+        Assertions.assertTrue(rebuilds.isEmpty());
+        Assertions.assertEquals(RollupTier.values().length, batchRows.size());
+        Assertions.assertTrue(batchSql.get(0).contains(RollupTier.QUARTER_HOUR.table()));
+        List<Object[]> quarterHours = batchRows.get(0);
+        Assertions.assertEquals(3, quarterHours.size());
+        // bucket start, sample count, pv sum/count/min/max/Wh
+        assertBucket(quarterHours.get(0), "2024-06-21T10:00:00Z", 2, 2400.0, 1200.0, 1200.0, 200.0);
+        assertBucket(quarterHours.get(1), "2024-06-21T10:15:00Z", 1, 600.0, 600.0, 600.0, 150.0);
+        // 20 minutes since the previous snapshot, integrated over 15 at most
+        assertBucket(quarterHours.get(2), "2024-06-21T10:30:00Z", 1, 1200.0, 1200.0, 1200.0, 300.0);
+
+        List<Object[]> hours = batchRows.get(1);
+        Assertions.assertEquals(1, hours.size());
+        assertBucket(hours.get(0), "2024-06-21T10:00:00Z", 4, 4200.0, 600.0, 1200.0, 650.0);
+    }
+
+    @Test
+    void first_snapshot_of_a_station_carries_no_energy() {
+        storedFrom = 1;
+
+        repository.accumulate(STATION, List.of(snapshot("2024-06-21T10:00:00Z", 1200)));
+
+        assertBucket(batchRows.get(0).get(0), "2024-06-21T10:00:00Z", 1, 1200.0, 1200.0, 1200.0, 0.0);
+    }
+
+    @Test
+    void backfill_between_stored_snapshots_rebuilds_the_touched_buckets() {
+        storedFrom = 3;
+        next = timestamp("2024-06-21T10:20:00Z");
+
+        repository.accumulate(STATION, List.of(snapshot("2024-06-21T10:07:00Z", 800),
+                snapshot("2024-06-21T10:09:00Z", 800)));
+
+        Assertions.assertTrue(batchRows.isEmpty());
+        Assertions.assertEquals(RollupTier.values().length, rebuilds.size());
+        // station, end, station, start, start, start; up to the bucket of the next stored snapshot
+        Assertions.assertArrayEquals(new Object[]{STATION, timestamp("2024-06-21T10:30:00Z"), STATION,
+                        timestamp("2024-06-21T10:00:00Z"), timestamp("2024-06-21T10:00:00Z"),
+                        timestamp("2024-06-21T10:00:00Z")},
+                rebuilds.get(0));
+        Assertions.assertEquals(timestamp("2024-06-22T00:00:00Z"), rebuilds.get(2)[1]);
+        Assertions.assertEquals(timestamp("2024-06-21T00:00:00Z"), rebuilds.get(2)[3]);
+    }
+
+    private static void assertBucket(Object[] row, String bucketStart, long samples, double pvSum, double pvMin,
+                                     double pvMax, double pvWh) {
+        Assertions.assertEquals(STATION, row[0]);
+        Assertions.assertEquals(timestamp(bucketStart), row[1]);
+        Assertions.assertEquals(samples, row[2]);
+        Assertions.assertEquals(pvSum, (double) row[3], 1e-9);
+        Assertions.assertEquals(samples, row[4]);
+        Assertions.assertEquals(pvMin, row[5]);
+        Assertions.assertEquals(pvMax, row[6]);
+        Assertions.assertEquals(pvWh, (double) row[7], 1e-9);
+    }
+
+    private static PowerflowSnapshot snapshot(String timestamp, int pvW) {
+        var snapshot = new PowerflowSnapshot();
+        snapshot.setPowerflowTimestamp(OffsetDateTime.parse(timestamp));
+        snapshot.setPvW(BigDecimal.valueOf(pvW));
+        return snapshot;
+    }
+
+    private static Timestamp timestamp(String timestamp) {
+        return Timestamp.from(OffsetDateTime.parse(timestamp).toInstant());
+    }
+}
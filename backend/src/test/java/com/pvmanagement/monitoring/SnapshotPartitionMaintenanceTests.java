@@ -0,0 +1,73 @@
+package com.pvmanagement.monitoring;
+
+import com.pvmanagement.monitoring.app.SnapshotPartitionMaintenance;
+import com.pvmanagement.monitoring.domain.PowerflowSnapshot;
+import com.pvmanagement.monitoring.infra.PowerflowPartitionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class SnapshotPartitionMaintenanceTests {
+
+    private final Set<YearMonth> partitions = new HashSet<>();
+    private final Set<YearMonth> retired = new HashSet<>();
+    private final List<YearMonth> createCalls = new ArrayList<>();
+    private SnapshotPartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setup() {
+        // stands in for create_powerflow_snapshot_partition
+        var repository = new PowerflowPartitionRepository(null) {
+            @Override
+            public boolean createPartition(YearMonth month) {
+                createCalls.add(month);
+                if (retired.contains(month)) {
+                    return false;
+                }
+                partitions.add(month);
+                return true;
+            }
+        };
+        maintenance = new SnapshotPartitionMaintenance(repository, null, 3, false, 24, "detach");
+    }
+
+    @Test
+    void insert_into_month_without_partition_creates_it_first() {
+        partitions.add(YearMonth.of(2024, 6));
+
+        var snapshots = List.of(snapshot("2023-01-31T23:59:00Z"), snapshot("2023-02-01T00:00:00Z"),
+                snapshot("2023-02-15T12:00:00Z"), snapshot("2024-06-01T00:00:00Z"));
+        var storable = maintenance.storable(snapshots);
+
+        Assertions.assertEquals(snapshots, storable);
+        Assertions.assertTrue(partitions.containsAll(List.of(YearMonth.of(2023, 1), YearMonth.of(2023, 2))));
+        // each month is asked for once, later batches hit the remembered months
+        maintenance.storable(List.of(snapshot("2023-02-20T00:00:00Z")));
+        Assertions.assertEquals(List.of(YearMonth.of(2023, 1), YearMonth.of(2023, 2), YearMonth.of(2024, 6)),
+                createCalls);
+    }
+
+    @Test
+    void snapshots_of_retired_months_are_left_out() {
+        retired.add(YearMonth.of(2022, 3));
+
+        var kept = snapshot("2022-04-01T00:00:00Z");
+        var storable = maintenance.storable(List.of(snapshot("2022-03-31T23:00:00Z"), kept));
+
+        Assertions.assertEquals(List.of(kept), storable);
+        Assertions.assertFalse(partitions.contains(YearMonth.of(2022, 3)));
+    }
+
+    private static PowerflowSnapshot snapshot(String timestamp) {
+        var snapshot = new PowerflowSnapshot();
+        snapshot.setPowerflowTimestamp(OffsetDateTime.parse(timestamp));
+        return snapshot;
+    }
+}
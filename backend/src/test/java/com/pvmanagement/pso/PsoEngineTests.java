@@ -0,0 +1,69 @@
+package com.pvmanagement.pso;
+
+import com.pvmanagement.panelSizeOptimizer.PsoEngine;
+import com.pvmanagement.panelSizeOptimizer.PsoFactors;
+import com.pvmanagement.panelSizeOptimizer.PsoUtils;
+import com.pvmanagement.timeSeriesStatistics.DiurnalSlots;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+class PsoEngineTests {
+
+    @Test
+    void splits_production_into_fit_excess_and_lack_per_capacity() {
+        double[] production = new double[DiurnalSlots.SLOTS_PER_DAY];
+        double[] consumption = new double[DiurnalSlots.SLOTS_PER_DAY];
+        production[48] = 2.0;
+        consumption[48] = 1.5;
+        consumption[0] = 0.5;
+
+        var result = PsoEngine.evaluate(production, consumption, new double[]{0, 5, 10}, 10,
+                new PsoFactors(1, 10, 100));
+
+        // capacity 0: nothing produced, all consumption is lacking
+        Assertions.assertEquals(0, result.fitAmounts()[0], 1e-9);
+        Assertions.assertEquals(0, result.excessAmounts()[0], 1e-9);
+        Assertions.assertEquals(200, result.lackAmounts()[0], 1e-9);
+
+        // capacity 5: 1.0 produced at noon against 1.5 consumed
+        Assertions.assertEquals(1.0, result.fitAmounts()[1], 1e-9);
+        Assertions.assertEquals(0, result.excessAmounts()[1], 1e-9);
+        Assertions.assertEquals(100, result.lackAmounts()[1], 1e-9);
+
+        // capacity 10: 2.0 produced at noon, 0.5 exported
+        Assertions.assertEquals(1.5, result.fitAmounts()[2], 1e-9);
+        Assertions.assertEquals(5, result.excessAmounts()[2], 1e-9);
+        Assertions.assertEquals(50, result.lackAmounts()[2], 1e-9);
+        Assertions.assertEquals(56.5, result.totalAmounts()[2], 1e-9);
+    }
+
+    @Test
+    void pooled_sweep_matches_sequential_sweep() {
+        double[] production = new double[DiurnalSlots.SLOTS_PER_DAY];
+        double[] consumption = new double[DiurnalSlots.SLOTS_PER_DAY];
+        for (int slot = 0; slot < DiurnalSlots.SLOTS_PER_DAY; slot++) {
+            production[slot] = Math.max(0, Math.sin((slot - 24) * Math.PI / 48));
+            consumption[slot] = 0.3 + (slot % 7) * 0.1;
+        }
+        double[] capacities = PsoUtils.linearArray(1000, 0, 42);
+        var factors = new PsoFactors(0.1, 0.02, 0.32);
+
+        var sequential = PsoEngine.evaluate(production, consumption, capacities, 10, factors);
+        var pool = new ForkJoinPool(4);
+        try {
+            var pooled = PsoEngine.evaluate(production, consumption, capacities, 10, factors, pool);
+            Assertions.assertArrayEquals(sequential.totalAmounts(), pooled.totalAmounts());
+            Assertions.assertArrayEquals(sequential.lackAmounts(), pooled.lackAmounts());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void rejects_profiles_with_wrong_slot_count() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> PsoEngine.evaluate(new double[24], new double[24], new double[]{1}, 1, new PsoFactors(1, 1, 1)));
+    }
+}
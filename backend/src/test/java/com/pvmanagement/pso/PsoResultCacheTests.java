@@ -0,0 +1,112 @@
+package com.pvmanagement.pso;
+
+import com.pvmanagement.monitoring.app.StationCaches;
+import com.pvmanagement.panelSizeOptimizer.PsoRequest;
+import com.pvmanagement.panelSizeOptimizer.PsoResponse;
+import com.pvmanagement.panelSizeOptimizer.PsoResultCache;
+import com.pvmanagement.panelSizeOptimizer.PsoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class PsoResultCacheTests {
+
+    private static final PsoRequest REQUEST = new PsoRequest("0.3", "0.08", "10", "0.8", "20", "1000");
+
+    private final AtomicInteger computations = new AtomicInteger();
+    private volatile Supplier<PsoResponse> computation;
+
+    // stands in for the optimisation itself
+    private final PsoService psoService = new PsoService(null, null, null, new SimpleMeterRegistry(), 1, 1) {
+        @Override
+        public PsoResponse getPanelSizeOptimizationData(Long powerStationId, PsoRequest request) {
+            computations.incrementAndGet();
+            return computation.get();
+        }
+    };
+    private final PsoResultCache cache = new PsoResultCache(psoService, new StationCaches(null), 1_000,
+            Duration.ofHours(1), new SimpleMeterRegistry());
+
+    @AfterEach
+    void shutdown() {
+        psoService.shutdown();
+    }
+
+    @Test
+    void identical_concurrent_requests_compute_once() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        computation = () -> {
+            started.countDown();
+            await(release);
+            return response();
+        };
+
+        var first = CompletableFuture.supplyAsync(() -> cache.getPanelSizeOptimizationData(1L, REQUEST));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        var second = new CompletableFuture<PsoResponse>();
+        var waiting = new Thread(() -> second.complete(cache.getPanelSizeOptimizationData(1L, REQUEST)));
+        waiting.start();
+        // the second caller parks on the first caller's future
+        while (waiting.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        Assertions.assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, computations.get());
+    }
+
+    @Test
+    void failure_reaches_the_caller_and_is_not_cached() {
+        computation = () -> {
+            throw new AssertionError("evaluation failed");
+        };
+
+        var error = Assertions.assertThrows(AssertionError.class,
+                () -> cache.getPanelSizeOptimizationData(1L, REQUEST));
+        Assertions.assertEquals("evaluation failed", error.getMessage());
+
+        computation = PsoResultCacheTests::response;
+        Assertions.assertNotNull(cache.getPanelSizeOptimizationData(1L, REQUEST));
+        Assertions.assertNotNull(cache.getPanelSizeOptimizationData(1L, REQUEST));
+        Assertions.assertEquals(2, computations.get());
+    }
+
+    @Test
+    void requests_differing_only_in_unused_fields_share_a_result() {
+        computation = PsoResultCacheTests::response;
+        var otherRatio = new PsoRequest("0.3", "0.08", "10", "0.75", "20", "1000");
+
+        cache.getPanelSizeOptimizationData(1L, REQUEST);
+        var response = cache.getPanelSizeOptimizationData(1L, otherRatio);
+
+        Assertions.assertEquals(1, computations.get());
+        Assertions.assertEquals(otherRatio, response.request());
+    }
+
+    private static PsoResponse response() {
+        return PsoResponse.builder()
+                .pvCapacities(List.of(BigDecimal.ZERO, BigDecimal.TEN))
+                .request(REQUEST)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
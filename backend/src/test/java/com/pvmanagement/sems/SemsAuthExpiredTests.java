@@ -7,6 +7,7 @@ import com.pvmanagement.integration.sems.domain.SemsProperties;
 import com.pvmanagement.integration.sems.app.SemsAuthService;
 import com.pvmanagement.integration.sems.app.SemsClient;
 import com.pvmanagement.integration.sems.infra.SemsClientConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,7 +43,7 @@ class SemsAuthExpiredTests {
         auth = new SemsAuthService(props.getBaseUrl(), mapper, authBuilder, props);
         SemsClientConfig config = new SemsClientConfig();
         WebClient.Builder clientBuilder = WebClient.builder();
-        WebClient webClient = config.semsWebClient(clientBuilder, props.getBaseUrl(), auth, mapper);
+        WebClient webClient = config.semsWebClient(clientBuilder, props.getBaseUrl(), auth, mapper, new SimpleMeterRegistry());
         semsClient = new SemsClient(webClient, props);
     }
 
@@ -0,0 +1,76 @@
+package com.pvmanagement.sems;
+
+import com.pvmanagement.integration.sems.app.SemsPollPlanner;
+import com.pvmanagement.integration.sems.domain.SemsProperties;
+import com.pvmanagement.integration.sems.domain.StationSyncResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+class SemsPollPlannerTests {
+
+    // Vienna, at local noon and at local midnight in June
+    private static final double LAT = 48.2;
+    private static final double LON = 16.4;
+    private static final Instant NOON = Instant.parse("2024-06-21T11:00:00Z");
+    private static final Instant MIDNIGHT = Instant.parse("2024-06-21T22:00:00Z");
+
+    private SemsPollPlanner planner;
+
+    @BeforeEach
+    void setup() {
+        var props = new SemsProperties();
+        props.setStationId("S1");
+        props.setRefreshIntervalMs(Duration.ofMinutes(3).toMillis());
+        planner = new SemsPollPlanner(props);
+    }
+
+    @Test
+    void unchanged_upstream_timestamp_doubles_interval_up_to_cap() {
+        Assertions.assertEquals(List.of("S1"), planner.dueStations(NOON));
+
+        planner.record(List.of(stored("06/21/2024 13:00:00")), NOON);
+        Assertions.assertEquals(NOON.plus(Duration.ofMinutes(3)), planner.nextPollAt("S1"));
+
+        planner.record(List.of(stored("06/21/2024 13:00:00")), NOON);
+        Assertions.assertEquals(NOON.plus(Duration.ofMinutes(6)), planner.nextPollAt("S1"));
+
+        for (int i = 0; i < 5; i++) {
+            planner.record(List.of(stored("06/21/2024 13:00:00")), NOON);
+        }
+        Assertions.assertEquals(NOON.plus(Duration.ofMinutes(15)), planner.nextPollAt("S1"));
+
+        planner.record(List.of(stored("06/21/2024 13:05:00")), NOON);
+        Assertions.assertEquals(NOON.plus(Duration.ofMinutes(3)), planner.nextPollAt("S1"));
+    }
+
+    @Test
+    void rate_limits_back_off_exponentially() {
+        planner.dueStations(NOON);
+        var limited = StationSyncResult.failed("S1", StationSyncResult.Outcome.TRANSIENT_FAILURE);
+
+        planner.record(List.of(limited), NOON);
+        Assertions.assertEquals(NOON.plus(Duration.ofMinutes(6)), planner.nextPollAt("S1"));
+        planner.record(List.of(limited), NOON);
+        Assertions.assertEquals(NOON.plus(Duration.ofMinutes(12)), planner.nextPollAt("S1"));
+        Assertions.assertTrue(planner.dueStations(NOON.plus(Duration.ofMinutes(11))).isEmpty());
+    }
+
+    @Test
+    void polls_less_often_at_night() {
+        planner.dueStations(MIDNIGHT);
+        planner.record(List.of(stored("06/21/2024 23:55:00")), MIDNIGHT);
+        Assertions.assertEquals(MIDNIGHT.plus(Duration.ofMinutes(30)), planner.nextPollAt("S1"));
+
+        planner.record(List.of(stored("06/21/2024 13:10:00")), NOON);
+        Assertions.assertEquals(NOON.plus(Duration.ofMinutes(3)), planner.nextPollAt("S1"));
+    }
+
+    private static StationSyncResult stored(String upstreamTimestamp) {
+        return new StationSyncResult("S1", StationSyncResult.Outcome.STORED, upstreamTimestamp, LAT, LON);
+    }
+}
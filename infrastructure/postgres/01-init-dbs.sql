@@ -24,11 +24,17 @@ CREATE TABLE external_api_cache (
   id            BIGSERIAL PRIMARY KEY,
   cache_key     TEXT NOT NULL UNIQUE,
   response_json JSONB,
+  -- deflated Smile instead of response_json when app.cache-db.compress-payloads is on
+  response_blob BYTEA,
+  -- SHA-256 of the powerflow section, lets the collector skip unchanged payloads
+  content_hash  TEXT,
   status_code   INT,
   error_message TEXT,
   fetched_at    TIMESTAMPTZ NOT NULL DEFAULT NOW(),
   ttl_seconds   INT NOT NULL DEFAULT 300
 );
 
--- UNIQUE constraint on cache_key already creates an index in Postgres,
--- so no additional index is strictly necessary here.
+-- UNIQUE constraint on cache_key already creates an index in Postgres.
+-- Ingestion pages through the table by (fetched_at, id).
+CREATE INDEX idx_external_api_cache_fetched_at_id
+  ON external_api_cache (fetched_at, id);
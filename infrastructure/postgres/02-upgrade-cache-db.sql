@@ -0,0 +1,25 @@
+-- 02-upgrade-cache-db.sql
+-- Brings an existing homewatts_cache up to the schema of 01-init-dbs.sql. The cache database has no
+-- Flyway, and the init scripts only run against an empty data directory, so run this once by hand on
+-- databases created before these changes. Every statement is idempotent; on a fresh volume it runs
+-- right after 01 and changes nothing.
+
+\connect homewatts_cache
+
+------------------------------------------------------------
+-- 1. Payload columns
+------------------------------------------------------------
+
+-- deflated Smile instead of response_json when app.cache-db.compress-payloads is on
+ALTER TABLE external_api_cache ADD COLUMN IF NOT EXISTS response_blob BYTEA;
+
+-- SHA-256 of the powerflow section, lets the collector skip unchanged payloads
+ALTER TABLE external_api_cache ADD COLUMN IF NOT EXISTS content_hash TEXT;
+
+------------------------------------------------------------
+-- 2. Ingestion cursor index
+------------------------------------------------------------
+
+-- Ingestion pages through the table by (fetched_at, id).
+CREATE INDEX IF NOT EXISTS idx_external_api_cache_fetched_at_id
+  ON external_api_cache (fetched_at, id);